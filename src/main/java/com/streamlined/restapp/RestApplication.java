@@ -8,6 +8,9 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.streamlined.restapp.config.IngestionProperties;
+import com.streamlined.restapp.config.ListingProperties;
+import com.streamlined.restapp.config.ParserProperties;
 import com.streamlined.restapp.config.RecipientsConfigurer;
 import com.streamlined.restapp.config.SenderConfigurer;
 
@@ -17,7 +20,8 @@ import com.streamlined.restapp.config.SenderConfigurer;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties({ RecipientsConfigurer.class, SenderConfigurer.class })
+@EnableConfigurationProperties({ RecipientsConfigurer.class, SenderConfigurer.class, ParserProperties.class,
+		IngestionProperties.class, ListingProperties.class })
 public class RestApplication {
 
 	public static void main(String[] args) {
@@ -6,15 +6,21 @@ import java.util.stream.StreamSupport;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.streamlined.restapp.exception.FileStorageException;
 import com.streamlined.restapp.exception.IncorrectDataException;
+import com.streamlined.restapp.service.parser.Compression;
+import com.streamlined.restapp.service.parser.SourceFormat;
 
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -30,15 +36,16 @@ import lombok.extern.slf4j.Slf4j;
 public class Utilities {
 
 	public static final String PERSON_SOURCE_DIRECTORY_PREFIX = "person_";
-	public static final String PERSON_SOURCE_FILE_NAME = "person.json";
+	public static final String PERSON_SOURCE_FILE_NAME = "person";
 
 	private static final int BUFFER_SIZE = 8 * 1024;
+	private static final String CONTENT_DIGEST_ALGORITHM = "SHA-256";
 	
 	public <T> Stream<T> stream(Iterable<T> iterable) {
 		return StreamSupport.stream(iterable.spliterator(), false);
 	}
 
-	public URI getResourceURI(HttpServletRequest servletRequest, Long id) {
+	public URI getResourceURI(HttpServletRequest servletRequest, Object id) {
 		return UriComponentsBuilder.fromHttpUrl(servletRequest.getRequestURL().toString()).pathSegment("{id}")
 				.build(id);
 	}
@@ -52,7 +59,7 @@ public class Utilities {
 		}
 	}
 
-	private <T> String getViolations(Set<ConstraintViolation<T>> violations) {
+	public <T> String getViolations(Set<ConstraintViolation<T>> violations) {
 		return violations.stream().map(Utilities::formatViolation).collect(Collectors.joining(",", "[", "]"));
 	}
 
@@ -61,18 +68,72 @@ public class Utilities {
 				violation.getPropertyPath(), violation.getInvalidValue());
 	}
 
-	public Path copyToTemporaryFolder(MultipartFile multipartFile) {
-		try (BufferedInputStream inputStream = new BufferedInputStream(multipartFile.getInputStream(), BUFFER_SIZE)) {
+	/**
+	 * Method stores uploaded data as file in new temporary folder, file is named
+	 * after format and compression of uploaded file
+	 *
+	 * @param input            uploaded data
+	 * @param originalFileName name of uploaded file or null
+	 * @return stored file
+	 */
+	public Path copyToTemporaryFile(InputStream input, String originalFileName) {
+		try (BufferedInputStream inputStream = new BufferedInputStream(input, BUFFER_SIZE)) {
 			Path folder = Files.createTempDirectory(PERSON_SOURCE_DIRECTORY_PREFIX);
-			Path file = folder.resolve(PERSON_SOURCE_FILE_NAME);
+			Path file = folder.resolve(getSourceFileName(originalFileName));
 			Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
-			return folder;
+			return file;
 		} catch (IOException e) {
 			log.error("Cannot copy uploaded file");
 			throw new FileStorageException("Cannot copy uploaded file", e);
 		}
 	}
 
+	/**
+	 * Method stores uploaded file in new temporary folder, its content passes
+	 * given digest while it is copied, so content is read only once
+	 *
+	 * @param multipartFile uploaded file
+	 * @param digest        digest updated with content of file
+	 * @return stored file
+	 */
+	public Path copyToTemporaryFile(MultipartFile multipartFile, MessageDigest digest) {
+		InputStream input;
+		try {
+			input = multipartFile.getInputStream();
+		} catch (IOException e) {
+			log.error("Cannot read uploaded file");
+			throw new FileStorageException("Cannot read uploaded file", e);
+		}
+		return copyToTemporaryFile(new DigestInputStream(input, digest), multipartFile.getOriginalFilename());
+	}
+
+	/**
+	 * Method returns name of stored upload file which keeps format and
+	 * compression extensions of uploaded file
+	 *
+	 * @param originalFileName name of uploaded file or null
+	 * @return name of stored file
+	 */
+	public String getSourceFileName(String originalFileName) {
+		if (originalFileName == null) {
+			return PERSON_SOURCE_FILE_NAME + SourceFormat.JSON.getDefaultExtension();
+		}
+		Compression compression = Compression.of(originalFileName).orElse(Compression.NONE);
+		if (compression == Compression.ZIP) {
+			return PERSON_SOURCE_FILE_NAME + compression.getExtension();
+		}
+		SourceFormat format = SourceFormat.of(Compression.stripExtension(originalFileName)).orElse(SourceFormat.JSON);
+		return PERSON_SOURCE_FILE_NAME + format.getDefaultExtension() + compression.getExtension();
+	}
+
+	public MessageDigest getContentDigest() {
+		try {
+			return MessageDigest.getInstance(CONTENT_DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Digest algorithm %s not available".formatted(CONTENT_DIGEST_ALGORITHM), e);
+		}
+	}
+
 	public void cleanTemporaryFolder(Path folder) {
 		if (folder != null) {
 			try (Stream<Path> fileStream = Files.walk(folder)) {
@@ -0,0 +1,57 @@
+package com.streamlined.restapp.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.streamlined.restapp.service.writer.OnConflict;
+import com.streamlined.restapp.service.writer.WriteMode;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings of writing uploaded person entities to database
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "ingestion")
+public class IngestionProperties {
+
+	private int chunkSize = 1000;
+	private int writerThreads = 1;
+	private int maxReportedFailures = 100;
+	private WriteMode writeMode = WriteMode.JPA;
+	private OnConflict onConflict = OnConflict.FAIL;
+	private Jobs jobs = new Jobs();
+	private Sessions sessions = new Sessions();
+
+	/**
+	 * Settings of asynchronous upload jobs
+	 */
+	@Getter
+	@Setter
+	public static class Jobs {
+
+		private int maxConcurrent = 2;
+		private int queueCapacity = 16;
+		private Duration retention = Duration.ofHours(1);
+
+	}
+
+	/**
+	 * Settings of resumable upload sessions, their jobs wait for chunks for whole
+	 * transfer and run on pool of their own
+	 */
+	@Getter
+	@Setter
+	public static class Sessions {
+
+		private int maxConcurrent = 4;
+		private int queueCapacity = 16;
+		private Duration idleTimeout = Duration.ofMinutes(2);
+
+	}
+
+}
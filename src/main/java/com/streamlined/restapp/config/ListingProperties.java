@@ -0,0 +1,33 @@
+package com.streamlined.restapp.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings of paged person list
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "listing")
+public class ListingProperties {
+
+	private CountCache countCache = new CountCache();
+
+	/**
+	 * Settings of cached numbers of persons matching probe
+	 */
+	@Getter
+	@Setter
+	public static class CountCache {
+
+		private int maxSize = 1000;
+		private Duration timeToLive = Duration.ofMinutes(1);
+
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.streamlined.restapp.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import com.streamlined.restapp.service.parser.InputMode;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings of person data parser
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "parser")
+public class ParserProperties {
+
+	private int threadCount = 4;
+	private boolean preserveOrder = true;
+	private DataSize chunkSize = DataSize.ofMegabytes(16);
+	private int resultQueueCapacity = 10_000;
+	private Duration resultTimeout = Duration.ofMinutes(5);
+	private InputMode inputMode = InputMode.STREAM;
+	private boolean validate = true;
+	private Scheduler scheduler = new Scheduler();
+
+	/**
+	 * Settings of parsing scheduler shared by all uploads
+	 */
+	@Getter
+	@Setter
+	public static class Scheduler {
+
+		private int maxWorkers = 8;
+		private int maxUploads = 4;
+		private Duration admissionTimeout = Duration.ofSeconds(30);
+
+	}
+
+}
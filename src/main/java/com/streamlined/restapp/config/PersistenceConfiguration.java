@@ -0,0 +1,22 @@
+package com.streamlined.restapp.config;
+
+import java.util.List;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.streamlined.restapp.service.writer.SkippableValidationIntegrator;
+
+@Configuration
+public class PersistenceConfiguration {
+
+	@Bean
+	HibernatePropertiesCustomizer integratorCustomizer() {
+		return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+				(IntegratorProvider) () -> List.of(new SkippableValidationIntegrator()));
+	}
+
+}
@@ -1,6 +1,9 @@
 package com.streamlined.restapp.controller;
 
-import java.util.stream.Stream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpHeaders;
@@ -12,37 +15,74 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.streamlined.restapp.Utilities;
+import com.streamlined.restapp.dto.ParserSchedulerStatus;
 import com.streamlined.restapp.dto.PersonDto;
 import com.streamlined.restapp.dto.PersonListDto;
 import com.streamlined.restapp.dto.PersonListRequest;
 import com.streamlined.restapp.dto.ReportDto;
+import com.streamlined.restapp.dto.UploadJobDto;
+import com.streamlined.restapp.dto.UploadOptions;
 import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.dto.UploadSessionDto;
 import com.streamlined.restapp.exception.EntityNotFoundException;
 import com.streamlined.restapp.service.person.PersonService;
+import com.streamlined.restapp.service.writer.OnConflict;
+import com.streamlined.restapp.service.writer.WriteMode;
 
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 
 /**
  * Controller class for person entity
  */
 
 @RestController
-@RequiredArgsConstructor
 @RequestMapping("/api/person")
 public class PersonController {
 
+	private static final String GZIP_MEDIA_TYPE = "application/gzip";
+	private static final String ZIP_MEDIA_TYPE = "application/zip";
+	private static final String NDJSON_SOURCE_NAME = Utilities.PERSON_SOURCE_FILE_NAME + ".ndjson";
+
 	private final PersonService personService;
+	private final ObjectMapper mapper;
+	private final ObjectWriter personWriter;
+
+	public PersonController(PersonService personService, ObjectMapper mapper) {
+		this.personService = personService;
+		this.mapper = mapper;
+		personWriter = mapper.writerFor(PersonDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
 
 	@GetMapping
-	public Stream<PersonDto> getAllPersons() {
-		return personService.getAllPersons();
+	public ResponseEntity<StreamingResponseBody> getAllPersons() {
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(output -> {
+			try (JsonGenerator generator = mapper.createGenerator(output)) {
+				generator.writeStartArray();
+				personService.forEachPerson(person -> writePerson(generator, person));
+				generator.writeEndArray();
+			}
+		});
+	}
+
+	private void writePerson(JsonGenerator generator, PersonDto person) {
+		try {
+			personWriter.writeValue(generator, person);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	@GetMapping("/{id}")
@@ -78,13 +118,15 @@ public class PersonController {
 	@PostMapping("/_list")
 	public PersonListDto getPersonList(@RequestBody PersonListRequest personListRequest) {
 		return personService.getPersonList(personListRequest.getPageNumber(), personListRequest.getPageSize(),
-				personListRequest.getPersonProbe());
+				personListRequest.after(), personListRequest.getTotalMode(), personListRequest.getPersonProbe(),
+				personListRequest.filter());
 	}
 
 	@PostMapping(value = "/_report", consumes = { MediaType.APPLICATION_FORM_URLENCODED_VALUE,
 			MediaType.APPLICATION_JSON_VALUE })
 	public ResponseEntity<FileSystemResource> getPersonListAsFile(@RequestBody PersonListRequest personListRequest) {
-		ReportDto outputFile = personService.getFilteredPersonsAsFileResource(personListRequest.getPersonProbe());
+		ReportDto outputFile = personService.getFilteredPersonsAsFileResource(personListRequest.getPersonProbe(),
+				personListRequest.filter());
 		HttpHeaders responseHeaders = new HttpHeaders();
 		responseHeaders.set(HttpHeaders.CONTENT_DISPOSITION,
 				"attachment; filename=\"%s\"".formatted(outputFile.fileName()));
@@ -92,10 +134,89 @@ public class PersonController {
 				.body(outputFile.fileResource());
 	}
 
+	@PostMapping("/_bulk")
+	public UploadResponse saveAll(@RequestBody List<PersonDto> persons,
+			@RequestParam(name = "mode", required = false) WriteMode writeMode,
+			@RequestParam(name = "onConflict", required = false) OnConflict onConflict) {
+		return personService.saveAll(persons, new UploadOptions(writeMode, onConflict));
+	}
+
 	@PostMapping(value = "/upload")
-	public ResponseEntity<UploadResponse> uploadFile(@RequestParam("file") MultipartFile multipartFile) {
-		UploadResponse uploadStatus = personService.uploadFile(multipartFile);
-		return ResponseEntity.ok().body(uploadStatus);
+	public ResponseEntity<UploadJobDto> uploadFile(@RequestParam("file") MultipartFile multipartFile,
+			@RequestParam(name = "mode", required = false) WriteMode writeMode,
+			@RequestParam(name = "onConflict", required = false) OnConflict onConflict,
+			HttpServletRequest servletRequest) {
+		UploadJobDto uploadJob = personService.uploadFile(multipartFile, new UploadOptions(writeMode, onConflict));
+		return ResponseEntity.accepted().location(Utilities.getResourceURI(servletRequest, uploadJob.id()))
+				.body(uploadJob);
+	}
+
+	@PostMapping(value = "/upload", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+			MediaType.APPLICATION_OCTET_STREAM_VALUE, GZIP_MEDIA_TYPE, ZIP_MEDIA_TYPE })
+	public ResponseEntity<UploadJobDto> uploadStream(InputStream body,
+			@RequestParam(name = "fileName", required = false) String fileName,
+			@RequestParam(name = "mode", required = false) WriteMode writeMode,
+			@RequestParam(name = "onConflict", required = false) OnConflict onConflict,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, HttpServletRequest servletRequest) {
+		String sourceName = fileName == null && MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+				? NDJSON_SOURCE_NAME
+				: fileName;
+		UploadJobDto uploadJob = personService.uploadStream(body, sourceName,
+				new UploadOptions(writeMode, onConflict));
+		return ResponseEntity.accepted().location(Utilities.getResourceURI(servletRequest, uploadJob.id()))
+				.body(uploadJob);
+	}
+
+	@GetMapping("/upload/{jobId}")
+	public UploadJobDto getUploadJob(@PathVariable String jobId) {
+		return personService.getUploadJob(jobId)
+				.orElseThrow(() -> new EntityNotFoundException("Upload job %s not found".formatted(jobId)));
+	}
+
+	@PostMapping("/upload/_session")
+	public ResponseEntity<UploadSessionDto> createUploadSession(
+			@RequestParam(name = "fileName", required = false) String fileName,
+			@RequestParam(name = "size", required = false) Long size,
+			@RequestParam(name = "mode", required = false) WriteMode writeMode,
+			@RequestParam(name = "onConflict", required = false) OnConflict onConflict,
+			HttpServletRequest servletRequest) {
+		UploadSessionDto uploadSession = personService.createUploadSession(fileName, size,
+				new UploadOptions(writeMode, onConflict));
+		return ResponseEntity.created(Utilities.getResourceURI(servletRequest, uploadSession.id()))
+				.body(uploadSession);
+	}
+
+	@GetMapping("/upload/_session/{sessionId}")
+	public UploadSessionDto getUploadSession(@PathVariable String sessionId) {
+		return personService.getUploadSession(sessionId)
+				.orElseThrow(() -> new EntityNotFoundException("Upload session %s not found".formatted(sessionId)));
+	}
+
+	@PutMapping(value = "/upload/_session/{sessionId}/{chunkNumber}", consumes = {
+			MediaType.APPLICATION_OCTET_STREAM_VALUE })
+	public UploadSessionDto putUploadChunk(@PathVariable String sessionId, @PathVariable int chunkNumber,
+			@RequestParam("offset") long offset, @RequestHeader(HttpHeaders.CONTENT_LENGTH) long length,
+			InputStream body) {
+		return personService.putUploadChunk(sessionId, chunkNumber, offset, length, body);
+	}
+
+	@PostMapping("/upload/_session/{sessionId}/_commit")
+	public ResponseEntity<UploadJobDto> commitUploadSession(@PathVariable String sessionId,
+			HttpServletRequest servletRequest) {
+		UploadJobDto uploadJob = personService.commitUploadSession(sessionId);
+		return ResponseEntity.accepted().location(ServletUriComponentsBuilder.fromContextPath(servletRequest)
+				.path("/api/person/upload/{id}").build(uploadJob.id())).body(uploadJob);
+	}
+
+	@DeleteMapping("/upload/_session/{sessionId}")
+	public ResponseEntity<Void> abortUploadSession(@PathVariable String sessionId) {
+		personService.abortUploadSession(sessionId);
+		return ResponseEntity.ok().build();
+	}
+
+	@GetMapping("/upload/_scheduler")
+	public ParserSchedulerStatus getParserSchedulerStatus() {
+		return personService.getParserSchedulerStatus();
 	}
 
 }
@@ -0,0 +1,11 @@
+package com.streamlined.restapp.dao;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.streamlined.restapp.data.PersonImport;
+import com.streamlined.restapp.data.PersonImportId;
+
+@Repository
+public interface PersonImportRepository extends CrudRepository<PersonImport, PersonImportId> {
+}
@@ -1,10 +1,43 @@
 package com.streamlined.restapp.dao;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.streamlined.restapp.data.Person;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository
+		extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person>, PersonRepositoryCustom {
+
+	@EntityGraph(attributePaths = { "countryOfOrigin", "citizenship" })
+	@Query("select p from Person p")
+	List<Person> findAllWithCountries();
+
+	/**
+	 * Method streams all persons with their countries from database cursor, rows
+	 * are fetched in batches, so stream should be consumed within transaction
+	 *
+	 * @return stream of persons
+	 */
+	@EntityGraph(attributePaths = { "countryOfOrigin", "citizenship" })
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select p from Person p")
+	Stream<Person> streamAllWithCountries();
+
+	@EntityGraph(attributePaths = { "countryOfOrigin", "citizenship" })
+	Optional<Person> findWithCountriesById(Long id);
+
 }
@@ -0,0 +1,49 @@
+package com.streamlined.restapp.dao;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.EssentialPersonDto;
+import com.streamlined.restapp.dto.ReportedPersonDto;
+
+/**
+ * Queries of person data which select only columns of returned projection, so
+ * no person entities are managed by persistence context, and estimate of
+ * number of persons taken from query plan
+ */
+
+public interface PersonRepositoryCustom {
+
+	/**
+	 * Method returns listed columns of persons matching specification ordered by
+	 * id
+	 *
+	 * @param specification specification of persons
+	 * @param offset        number of skipped persons
+	 * @param limit         maximum number of returned persons
+	 * @return list of persons
+	 */
+	List<EssentialPersonDto> findEssential(Specification<Person> specification, long offset, int limit);
+
+	/**
+	 * Method streams reported columns of persons matching specification, stream
+	 * should be closed within transaction it was opened in
+	 *
+	 * @param specification specification of persons
+	 * @return stream of persons
+	 */
+	Stream<ReportedPersonDto> streamReported(Specification<Person> specification);
+
+	/**
+	 * Method returns number of persons matching specification as estimated by
+	 * query planner, persons are not counted
+	 *
+	 * @param specification specification of persons
+	 * @return estimated number of persons
+	 */
+	long estimateCount(Specification<Person> specification);
+
+}
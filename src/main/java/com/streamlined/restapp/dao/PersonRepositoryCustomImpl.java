@@ -0,0 +1,90 @@
+package com.streamlined.restapp.dao;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.EssentialPersonDto;
+import com.streamlined.restapp.dto.ReportedPersonDto;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RequiredArgsConstructor
+@Slf4j
+public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
+
+	private static final String EXPLAIN_PREFIX = "explain (format json) ";
+
+	private final EntityManager entityManager;
+	private final ObjectMapper mapper;
+
+	@Override
+	public List<EssentialPersonDto> findEssential(Specification<Person> specification, long offset, int limit) {
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<EssentialPersonDto> query = criteriaBuilder.createQuery(EssentialPersonDto.class);
+		Root<Person> root = query.from(Person.class);
+		query.select(criteriaBuilder.construct(EssentialPersonDto.class, root.get("id"), root.get("name"),
+				root.get("birthday"), root.get("sex"), root.get("eyeColor"), root.get("height")));
+		restrict(query, root, criteriaBuilder, specification);
+		query.orderBy(criteriaBuilder.asc(root.get("id")));
+		return entityManager.createQuery(query).setFirstResult(Math.toIntExact(offset)).setMaxResults(limit)
+				.getResultList();
+	}
+
+	@Override
+	public Stream<ReportedPersonDto> streamReported(Specification<Person> specification) {
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<ReportedPersonDto> query = criteriaBuilder.createQuery(ReportedPersonDto.class);
+		Root<Person> root = query.from(Person.class);
+		query.select(criteriaBuilder.construct(ReportedPersonDto.class, root.get("name"), root.get("birthday"),
+				root.get("sex"), root.get("eyeColor"), root.get("height")));
+		restrict(query, root, criteriaBuilder, specification);
+		return entityManager.createQuery(query).getResultStream();
+	}
+
+	/**
+	 * Method runs query of persons matching specification in separate session
+	 * which prefixes its statement with EXPLAIN, so Hibernate renders and binds
+	 * the same SQL as for listed persons, and database returns its plan instead
+	 * of persons. Estimate is number of rows of top plan node.
+	 */
+	@Override
+	public long estimateCount(Specification<Person> specification) {
+		SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+		try (Session session = sessionFactory.withOptions().statementInspector(EXPLAIN_PREFIX::concat)
+				.openSession()) {
+			CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+			CriteriaQuery<String> query = criteriaBuilder.createQuery(String.class);
+			Root<Person> root = query.from(Person.class);
+			query.select(root.get("name"));
+			restrict(query, root, criteriaBuilder, specification);
+			String plan = session.createQuery(query).getSingleResult();
+			return mapper.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+		} catch (JsonProcessingException e) {
+			log.error("Cannot read query plan of person count estimate");
+			throw new IllegalStateException("Cannot read query plan of person count estimate", e);
+		}
+	}
+
+	private void restrict(CriteriaQuery<?> query, Root<Person> root, CriteriaBuilder criteriaBuilder,
+			Specification<Person> specification) {
+		Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+	}
+
+}
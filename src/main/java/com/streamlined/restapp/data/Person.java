@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import org.hibernate.annotations.NaturalId;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -17,9 +18,11 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
@@ -48,7 +51,8 @@ import lombok.ToString;
 public class Person {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+	@SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = 50)
 	@EqualsAndHashCode.Include
 	private Long id;
 
@@ -106,4 +110,15 @@ public class Person {
 	@Column(name = "meals")
 	private String favoriteMeals;
 
+	// name of upload source and number of record of entity in it, used to report failures of upload
+	@Transient
+	@JsonIgnore
+	@ToString.Exclude
+	private String source;
+
+	@Transient
+	@JsonIgnore
+	@ToString.Exclude
+	private long record;
+
 }
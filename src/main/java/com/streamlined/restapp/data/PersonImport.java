@@ -0,0 +1,64 @@
+package com.streamlined.restapp.data;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.streamlined.restapp.dto.UploadFailure;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Completed import of uploaded file, identified by hash of file content and
+ * handling of conflicting persons
+ */
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@IdClass(PersonImportId.class)
+@Table(name = "person_import")
+public class PersonImport {
+
+	@Id
+	@EqualsAndHashCode.Include
+	@Column(name = "content_hash", nullable = false)
+	private String contentHash;
+
+	@Id
+	@EqualsAndHashCode.Include
+	@Column(name = "on_conflict", nullable = false)
+	private String onConflict;
+
+	@Column(name = "succeeded_entries", nullable = false)
+	private int succeededEntries;
+
+	@Column(name = "failed_entries", nullable = false)
+	private int failedEntries;
+
+	@JdbcTypeCode(SqlTypes.JSON)
+	@Column(name = "failures", nullable = false)
+	private List<UploadFailure> failures;
+
+	@Column(name = "imported_at", nullable = false)
+	private Instant importedAt;
+
+}
@@ -0,0 +1,21 @@
+package com.streamlined.restapp.data;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class PersonImportId implements Serializable {
+
+	private String contentHash;
+	private String onConflict;
+
+}
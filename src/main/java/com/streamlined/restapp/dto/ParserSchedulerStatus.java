@@ -0,0 +1,5 @@
+package com.streamlined.restapp.dto;
+
+public record ParserSchedulerStatus(int maxWorkers, int activeWorkers, int queueDepth, int activeUploads,
+		int waitingUploads) {
+}
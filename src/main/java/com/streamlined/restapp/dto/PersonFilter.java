@@ -0,0 +1,18 @@
+package com.streamlined.restapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.streamlined.restapp.data.Color;
+import com.streamlined.restapp.data.Sex;
+
+/**
+ * Range, list and prefix conditions of person list request, absent conditions
+ * and empty lists do not restrict persons, ranges include their bounds
+ */
+
+public record PersonFilter(String namePrefix, LocalDate birthdayFrom, LocalDate birthdayTo, List<Sex> sexes,
+		List<Color> eyeColors, List<Color> hairColors, BigDecimal weightFrom, BigDecimal weightTo,
+		BigDecimal heightFrom, BigDecimal heightTo, List<Long> countryOfOriginIds, List<Long> citizenshipIds) {
+}
@@ -2,8 +2,16 @@ package com.streamlined.restapp.dto;
 
 import java.util.List;
 
+import com.streamlined.restapp.service.person.TotalMode;
+
 import lombok.Builder;
 
+/**
+ * Page of person list, total numbers of persons and pages are exact, estimated
+ * or absent as told by total mode
+ */
+
 @Builder
-public record PersonListDto(List<EssentialPersonDto> list, int totalPages) {
+public record PersonListDto(List<EssentialPersonDto> list, Long totalElements, Integer totalPages,
+		TotalMode totalMode, String next) {
 }
@@ -7,10 +7,11 @@ import com.streamlined.restapp.data.Color;
 import com.streamlined.restapp.data.Country;
 import com.streamlined.restapp.data.Person;
 import com.streamlined.restapp.data.Sex;
+import com.streamlined.restapp.service.person.TotalMode;
 
 public record PersonListRequest(Integer page, Integer size, String name, LocalDate birthday, Sex sex, Color eyeColor,
 		Color hairColor, BigDecimal weight, BigDecimal height, Country countryOfOrigin, Country citizenship,
-		String favoriteMeals) {
+		String favoriteMeals, String after, TotalMode total, PersonFilter filter) {
 
 	private static final int DEFAULT_PAGE_NUMBER = 0;
 	private static final int DEFAULT_PAGE_SIZE = 10;
@@ -28,4 +29,8 @@ public record PersonListRequest(Integer page, Integer size, String name, LocalDa
 	public int getPageSize() {
 		return size == null ? DEFAULT_PAGE_SIZE : size.intValue();
 	}
+
+	public TotalMode getTotalMode() {
+		return total == null ? TotalMode.EXACT : total;
+	}
 }
@@ -0,0 +1,10 @@
+package com.streamlined.restapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.streamlined.restapp.data.Color;
+import com.streamlined.restapp.data.Sex;
+
+public record ReportedPersonDto(String name, LocalDate birthday, Sex sex, Color eyeColor, BigDecimal height) {
+}
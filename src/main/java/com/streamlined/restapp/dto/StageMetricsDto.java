@@ -0,0 +1,5 @@
+package com.streamlined.restapp.dto;
+
+public record StageMetricsDto(int parallelism, long items, double itemsPerSecond, double averageMicros,
+		double averageCpuMicros, double busyThreads, Integer queueSize, Integer queueCapacity) {
+}
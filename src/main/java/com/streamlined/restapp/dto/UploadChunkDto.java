@@ -0,0 +1,4 @@
+package com.streamlined.restapp.dto;
+
+public record UploadChunkDto(int number, long offset, long length) {
+}
@@ -0,0 +1,14 @@
+package com.streamlined.restapp.dto;
+
+/**
+ * Record of uploaded entity which was not saved
+ *
+ * @param source name of upload source, entry of archive, or {@code null} if
+ *               entities were not uploaded as file
+ * @param row    number of record in source starting from one, line number for
+ *               newline-delimited sources
+ * @param reason description of error
+ */
+
+public record UploadFailure(String source, long row, String reason) {
+}
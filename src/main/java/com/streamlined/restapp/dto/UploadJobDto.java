@@ -0,0 +1,11 @@
+package com.streamlined.restapp.dto;
+
+import java.util.Map;
+
+import com.streamlined.restapp.service.pipeline.Stage;
+import com.streamlined.restapp.service.upload.UploadJobState;
+
+public record UploadJobDto(String id, UploadJobState state, long parsedEntries, long savedEntries,
+		long failedEntries, double entriesPerSecond, Long remainingSeconds, UploadResponse result, String error,
+		Map<Stage, StageMetricsDto> stages) {
+}
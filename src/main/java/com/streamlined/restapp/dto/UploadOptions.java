@@ -0,0 +1,7 @@
+package com.streamlined.restapp.dto;
+
+import com.streamlined.restapp.service.writer.OnConflict;
+import com.streamlined.restapp.service.writer.WriteMode;
+
+public record UploadOptions(WriteMode writeMode, OnConflict onConflict) {
+}
@@ -1,4 +1,11 @@
 package com.streamlined.restapp.dto;
 
-public record UploadResponse(int succeededEntries, int failedEntries) {
+import java.util.List;
+
+public record UploadResponse(int succeededEntries, int failedEntries, List<UploadFailure> failures) {
+
+	public UploadResponse(int succeededEntries, int failedEntries) {
+		this(succeededEntries, failedEntries, List.of());
+	}
+
 }
@@ -0,0 +1,7 @@
+package com.streamlined.restapp.dto;
+
+import java.util.List;
+
+public record UploadSessionDto(String id, String jobId, long receivedBytes, List<UploadChunkDto> chunks,
+		boolean committed) {
+}
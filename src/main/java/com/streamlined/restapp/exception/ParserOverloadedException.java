@@ -0,0 +1,11 @@
+package com.streamlined.restapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import lombok.experimental.StandardException;
+
+@StandardException
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ParserOverloadedException extends RuntimeException {
+}
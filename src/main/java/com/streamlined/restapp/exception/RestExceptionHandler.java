@@ -1,5 +1,6 @@
 package com.streamlined.restapp.exception;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -34,11 +35,26 @@ public class RestExceptionHandler {
 		return ResponseEntity.badRequest().body(exception.getMessage());
 	}
 
+	@ExceptionHandler(ParserOverloadedException.class)
+	public ResponseEntity<String> handleParserOverloadedException(ParserOverloadedException exception) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(exception.getMessage());
+	}
+
+	@ExceptionHandler(UploadRejectedException.class)
+	public ResponseEntity<String> handleUploadRejectedException(UploadRejectedException exception) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(exception.getMessage());
+	}
+
 	@ExceptionHandler(FileStorageException.class)
 	public ResponseEntity<String> handleFileStorageException(FileStorageException exception) {
 		return ResponseEntity.badRequest().body(exception.getMessage());
 	}
 
+	@ExceptionHandler(WriteException.class)
+	public ResponseEntity<String> handleWriteException(WriteException exception) {
+		return ResponseEntity.internalServerError().body(exception.getMessage());
+	}
+
 	@ExceptionHandler(CantSendKafkaMessageException.class)
 	public ResponseEntity<String> handleImpossibleToSendKafkaMessage(CantSendKafkaMessageException exception) {
 		return ResponseEntity.badRequest().body(exception.getMessage());
@@ -0,0 +1,94 @@
+package com.streamlined.restapp.service.counter;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.streamlined.restapp.config.ListingProperties;
+import com.streamlined.restapp.dao.PersonRepository;
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.service.person.TotalMode;
+
+/**
+ * Class counts persons by count query and keeps count for key of
+ * specification, so the same probe is counted once until persons are written
+ * or count expires. Counts are dropped after transaction writing persons is
+ * completed, count computed while they are dropped is not kept. Least recently
+ * used count is dropped when cache is full.
+ */
+
+@Component
+public class CachedPersonCounter implements PersonCounter {
+
+	private final PersonRepository personRepository;
+	private final ListingProperties.CountCache properties;
+	private final Map<Object, CachedCount> counts;
+	private long generation;
+
+	public CachedPersonCounter(PersonRepository personRepository, ListingProperties listingProperties) {
+		this.personRepository = personRepository;
+		this.properties = listingProperties.getCountCache();
+		counts = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, CachedCount> eldest) {
+				return size() > properties.getMaxSize();
+			}
+		};
+	}
+
+	@Override
+	public long count(Specification<Person> specification, Object key) {
+		long countGeneration;
+		synchronized (this) {
+			CachedCount cachedCount = counts.get(key);
+			if (cachedCount != null && cachedCount.expiryTime().isAfter(Instant.now())) {
+				return cachedCount.count();
+			}
+			countGeneration = generation;
+		}
+		long count = personRepository.count(specification);
+		synchronized (this) {
+			if (countGeneration == generation) {
+				counts.put(key, new CachedCount(count, Instant.now().plus(properties.getTimeToLive())));
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Method drops kept counts. Within transaction counts are dropped after it is
+	 * completed.
+	 */
+	@Override
+	public void invalidate() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					clear();
+				}
+			});
+		} else {
+			clear();
+		}
+	}
+
+	private synchronized void clear() {
+		generation++;
+		counts.clear();
+	}
+
+	@Override
+	public TotalMode getTotalMode() {
+		return TotalMode.CACHED;
+	}
+
+	private record CachedCount(long count, Instant expiryTime) {
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.streamlined.restapp.service.counter;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import com.streamlined.restapp.dao.PersonRepository;
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.service.person.TotalMode;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class returns number of persons estimated by query planner from table
+ * statistics, so its cost does not depend on number of matching persons.
+ * Estimate is as accurate as statistics gathered by last analyze of person
+ * table.
+ */
+
+@Component
+@RequiredArgsConstructor
+public class EstimatedPersonCounter implements PersonCounter {
+
+	private final PersonRepository personRepository;
+
+	@Override
+	public long count(Specification<Person> specification, Object key) {
+		return personRepository.estimateCount(specification);
+	}
+
+	@Override
+	public TotalMode getTotalMode() {
+		return TotalMode.ESTIMATED;
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.streamlined.restapp.service.counter;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import com.streamlined.restapp.dao.PersonRepository;
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.service.person.TotalMode;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class counts persons by count query
+ */
+
+@Component
+@RequiredArgsConstructor
+public class ExactPersonCounter implements PersonCounter {
+
+	private final PersonRepository personRepository;
+
+	@Override
+	public long count(Specification<Person> specification, Object key) {
+		return personRepository.count(specification);
+	}
+
+	@Override
+	public TotalMode getTotalMode() {
+		return TotalMode.EXACT;
+	}
+
+}
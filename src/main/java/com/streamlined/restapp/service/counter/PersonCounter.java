@@ -0,0 +1,28 @@
+package com.streamlined.restapp.service.counter;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.service.person.TotalMode;
+
+public interface PersonCounter {
+
+	/**
+	 * Method returns number of persons matching specification
+	 *
+	 * @param specification specification of persons
+	 * @param key           key which is equal for specifications selecting the
+	 *                      same persons
+	 * @return number of persons
+	 */
+	long count(Specification<Person> specification, Object key);
+
+	/**
+	 * Method drops numbers of persons kept by counter after persons are written
+	 */
+	default void invalidate() {
+	}
+
+	TotalMode getTotalMode();
+
+}
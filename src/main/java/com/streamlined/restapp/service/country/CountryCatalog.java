@@ -0,0 +1,112 @@
+package com.streamlined.restapp.service.country;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.streamlined.restapp.dao.CountryRepository;
+import com.streamlined.restapp.data.Country;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class keeps shared instances of all countries, so parsed person entities may
+ * refer to the same country objects instead of creating new ones for every
+ * record. Catalog is loaded on first use and reloaded after countries change.
+ */
+
+@Component
+@RequiredArgsConstructor
+public class CountryCatalog {
+
+	private final CountryRepository countryRepository;
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Method looks up country by id if it is given, otherwise by name
+	 *
+	 * @param id   id of country or null
+	 * @param name name of country or null
+	 * @return shared country instance if catalog contains it
+	 */
+	public Optional<Country> find(Long id, String name) {
+		Snapshot current = getSnapshot();
+		if (id != null) {
+			return Optional.ofNullable(current.countriesById().get(id));
+		}
+		if (name != null) {
+			return Optional.ofNullable(current.countriesByName().get(name));
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Method returns id of country referenced by entity, country given by name
+	 * only is looked up in catalog
+	 *
+	 * @param country referenced country or null
+	 * @return id of country or null if it is unknown
+	 */
+	public Long getId(Country country) {
+		if (country == null) {
+			return null;
+		}
+		if (country.getId() != null) {
+			return country.getId();
+		}
+		return find(null, country.getName()).map(Country::getId).orElse(null);
+	}
+
+	/**
+	 * Method drops loaded countries, so catalog is reloaded on next use. Within
+	 * transaction countries are dropped after it is completed.
+	 */
+	public void invalidate() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					clear();
+				}
+			});
+		} else {
+			clear();
+		}
+	}
+
+	private synchronized void clear() {
+		snapshot = null;
+	}
+
+	private Snapshot getSnapshot() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null) {
+					current = load();
+					snapshot = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	private Snapshot load() {
+		Map<Long, Country> countriesById = new HashMap<>();
+		Map<String, Country> countriesByName = new HashMap<>();
+		for (Country country : countryRepository.findAll()) {
+			countriesById.put(country.getId(), country);
+			countriesByName.put(country.getName(), country);
+		}
+		return new Snapshot(Map.copyOf(countriesById), Map.copyOf(countriesByName));
+	}
+
+	private record Snapshot(Map<Long, Country> countriesById, Map<String, Country> countriesByName) {
+	}
+
+}
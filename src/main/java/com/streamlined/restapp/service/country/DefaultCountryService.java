@@ -29,6 +29,7 @@ public class DefaultCountryService implements CountryService {
 	private final CountryMapper countryMapper;
 	private final Validator validator;
 	private final NotificationService notificationService;
+	private final CountryCatalog countryCatalog;
 
 	@Override
 	public Stream<CountryDto> getAllCountries() {
@@ -47,6 +48,7 @@ public class DefaultCountryService implements CountryService {
 		entity.setId(country.id());
 		Utilities.checkIfValid(validator, entity, "country");
 		CountryDto dto = countryMapper.toDto(countryRepository.save(entity));
+		countryCatalog.invalidate();
 		notificationService.notify("country", dto, "saved");
 		return dto;
 	}
@@ -58,6 +60,7 @@ public class DefaultCountryService implements CountryService {
 		entity.setId(id);
 		Utilities.checkIfValid(validator, entity, "country");
 		CountryDto dto = countryMapper.toDto(countryRepository.save(entity));
+		countryCatalog.invalidate();
 		notificationService.notify("country", dto, "saved");
 		return dto;
 	}
@@ -66,6 +69,7 @@ public class DefaultCountryService implements CountryService {
 	@Transactional
 	public void removeById(Long id) {
 		countryRepository.deleteById(id);
+		countryCatalog.invalidate();
 		notificationService.notify("country", id, "removed");
 	}
 
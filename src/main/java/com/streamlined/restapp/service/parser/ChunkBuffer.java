@@ -0,0 +1,59 @@
+package com.streamlined.restapp.service.parser;
+
+import java.util.Arrays;
+
+/**
+ * Class retains bytes of sequentially read input from start of current chunk,
+ * so chunks of input which cannot be read again, like decompressed stream, may
+ * be copied out and parsed independently
+ */
+
+class ChunkBuffer {
+
+	private byte[] data;
+	private long offset;
+	private int length;
+
+	ChunkBuffer(int initialCapacity) {
+		data = new byte[initialCapacity];
+	}
+
+	/**
+	 * Method appends next portion of input
+	 *
+	 * @param buffer buffer with next portion of input
+	 * @param from   offset of first byte in buffer
+	 * @param count  number of bytes to append
+	 */
+	void append(byte[] buffer, int from, int count) {
+		if (length + count > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+		}
+		System.arraycopy(buffer, from, data, length, count);
+		length += count;
+	}
+
+	/**
+	 * Method copies retained bytes of input
+	 *
+	 * @param start position of first byte to copy
+	 * @param end   position next to last byte to copy
+	 * @return copy of bytes
+	 */
+	byte[] copy(long start, long end) {
+		return Arrays.copyOfRange(data, (int) (start - offset), (int) (end - offset));
+	}
+
+	/**
+	 * Method drops bytes of input before given position
+	 *
+	 * @param position position of first byte to retain
+	 */
+	void discard(long position) {
+		int count = (int) (position - offset);
+		System.arraycopy(data, count, data, 0, length - count);
+		length -= count;
+		offset = position;
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.streamlined.restapp.service.parser;
+
+import java.nio.ByteBuffer;
+
+import com.streamlined.restapp.exception.ParseException;
+
+/**
+ * Scanner finds boundaries of records in raw bytes of source without binding
+ * them, so that source can be cut into chunks of complete records which are
+ * parsed independently
+ */
+
+interface ChunkScanner {
+
+	/**
+	 * Receiver of chunks found by scanner
+	 */
+	@FunctionalInterface
+	interface ChunkListener {
+
+		/**
+		 * Method accepts chunk of complete records
+		 *
+		 * @param start       position of first byte of chunk
+		 * @param end         position next to last byte of chunk
+		 * @param firstRecord number of first record of chunk starting from one
+		 */
+		void chunk(long start, long end, long firstRecord);
+
+	}
+
+	/**
+	 * Method scans next portion of input and notifies listener of every chunk which
+	 * reached configured size
+	 *
+	 * @param buffer buffer with next portion of input
+	 * @param offset offset of first byte in buffer
+	 * @param length number of bytes to scan
+	 * @throws ParseException if input has wrong format
+	 */
+	void scan(byte[] buffer, int offset, int length);
+
+	/**
+	 * Method scans remaining bytes of buffer and notifies listener of every chunk
+	 * which reached configured size
+	 *
+	 * @param buffer buffer with next portion of input
+	 * @throws ParseException if input has wrong format
+	 */
+	void scan(ByteBuffer buffer);
+
+	/**
+	 * Method notifies listener of last chunk when whole input has been scanned
+	 *
+	 * @throws ParseException if input ended unexpectedly
+	 */
+	void finish();
+
+	static ChunkScanner create(SourceFormat format, String sourceName, long chunkSize, ChunkListener listener) {
+		return switch (format) {
+		case JSON -> new JsonArrayScanner(sourceName, chunkSize, listener);
+		case NDJSON -> new LineScanner(chunkSize, listener);
+		};
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.streamlined.restapp.service.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Compression of person data source recognized by leading magic bytes of file
+ * content, file extension is used only to name stored uploads
+ */
+
+public enum Compression {
+
+	/**
+	 * Plain uncompressed source
+	 */
+	NONE(""),
+
+	/**
+	 * Single source compressed by gzip
+	 */
+	GZIP(".gz", 0x1f, 0x8b),
+
+	/**
+	 * Zip archive, every entry is separate source
+	 */
+	ZIP(".zip", 'P', 'K', 0x03, 0x04);
+
+	private static final int MAGIC_LENGTH = 4;
+
+	private final String extension;
+	private final byte[] magic;
+
+	Compression(String extension, int... magic) {
+		this.extension = extension;
+		this.magic = new byte[magic.length];
+		for (int k = 0; k < magic.length; k++) {
+			this.magic[k] = (byte) magic[k];
+		}
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	public static Optional<Compression> of(String fileName) {
+		String name = fileName.toLowerCase();
+		return Arrays.stream(values()).filter(compression -> compression != NONE)
+				.filter(compression -> name.endsWith(compression.extension)).findFirst();
+	}
+
+	/**
+	 * Method removes extension of compression from file name
+	 *
+	 * @param fileName name of file
+	 * @return name of compressed file
+	 */
+	public static String stripExtension(String fileName) {
+		return of(fileName).map(compression -> fileName.substring(0, fileName.length() - compression.extension.length()))
+				.orElse(fileName);
+	}
+
+	/**
+	 * Method reads leading bytes of file and detects its compression
+	 *
+	 * @param file file to check
+	 * @return compression of file
+	 * @throws IOException if file cannot be read
+	 */
+	public static Compression detect(Path file) throws IOException {
+		try (InputStream input = Files.newInputStream(file)) {
+			return detect(input.readNBytes(MAGIC_LENGTH));
+		}
+	}
+
+	/**
+	 * Method peeks leading bytes of input and detects its compression, input is
+	 * reset to its start afterwards
+	 *
+	 * @param input input supporting mark
+	 * @return compression of input
+	 * @throws IOException if input cannot be read
+	 */
+	public static Compression detect(InputStream input) throws IOException {
+		input.mark(MAGIC_LENGTH);
+		byte[] header = input.readNBytes(MAGIC_LENGTH);
+		input.reset();
+		return detect(header);
+	}
+
+	private static Compression detect(byte[] header) {
+		return Arrays.stream(values()).filter(compression -> compression != NONE)
+				.filter(compression -> header.length >= compression.magic.length
+						&& Arrays.equals(header, 0, compression.magic.length, compression.magic, 0,
+								compression.magic.length))
+				.findFirst().orElse(NONE);
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.streamlined.restapp.service.parser;
+
+/**
+ * Way source files are read by parser
+ */
+
+public enum InputMode {
+
+	/**
+	 * Files are read into heap buffers with positional channel reads
+	 */
+	STREAM,
+
+	/**
+	 * Files are memory-mapped in windows and bytes are copied straight from page
+	 * cache to JSON parser
+	 */
+	MAPPED
+
+}
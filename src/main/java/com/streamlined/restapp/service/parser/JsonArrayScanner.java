@@ -0,0 +1,157 @@
+package com.streamlined.restapp.service.parser;
+
+import java.nio.ByteBuffer;
+
+import com.streamlined.restapp.exception.ParseException;
+
+/**
+ * Class scans raw bytes of top-level JSON array and finds boundaries of its
+ * elements without binding them, so that array can be cut into chunks of
+ * complete elements which are parsed independently. String literals and escape
+ * sequences are taken into account, multibyte UTF-8 sequences never contain
+ * ASCII bytes and need no special handling.
+ */
+
+class JsonArrayScanner implements ChunkScanner {
+
+	private static final int NOT_STARTED = -1;
+
+	private final String sourceName;
+	private final long chunkSize;
+	private final ChunkListener listener;
+
+	private long position;
+	private int depth;
+	private boolean arrayStarted;
+	private boolean arrayClosed;
+	private boolean inString;
+	private boolean escaped;
+	private boolean expectingValue;
+	private long chunkStart = NOT_STARTED;
+	private long chunkFirstRecord;
+	private long recordCount;
+	private long lastValueEnd;
+
+	JsonArrayScanner(String sourceName, long chunkSize, ChunkListener listener) {
+		this.sourceName = sourceName;
+		this.chunkSize = chunkSize;
+		this.listener = listener;
+	}
+
+	@Override
+	public void scan(byte[] buffer, int offset, int length) {
+		for (int k = offset; k < offset + length; k++, position++) {
+			scan(buffer[k]);
+		}
+	}
+
+	@Override
+	public void scan(ByteBuffer buffer) {
+		while (buffer.hasRemaining()) {
+			scan(buffer.get());
+			position++;
+		}
+	}
+
+	private void scan(byte b) {
+		if (inString) {
+			scanString(b);
+		} else if (!arrayStarted) {
+			scanPrefix(b);
+		} else if (arrayClosed) {
+			checkWhitespace(b);
+		} else {
+			scanValue(b);
+		}
+	}
+
+	private void scanString(byte b) {
+		if (escaped) {
+			escaped = false;
+		} else if (b == '\\') {
+			escaped = true;
+		} else if (b == '"') {
+			inString = false;
+		}
+		lastValueEnd = position + 1;
+	}
+
+	private void scanPrefix(byte b) {
+		if (b == '[') {
+			arrayStarted = true;
+			expectingValue = true;
+			depth = 1;
+		} else {
+			checkWhitespace(b);
+		}
+	}
+
+	private void scanValue(byte b) {
+		if (isWhitespace(b)) {
+			return;
+		}
+		if (depth == 1 && (b == ',' || b == ']')) {
+			if (b == ']') {
+				closeArray();
+			}
+			expectingValue = true;
+			return;
+		}
+		if (depth == 1 && expectingValue) {
+			startValue();
+		}
+		lastValueEnd = position + 1;
+		switch (b) {
+		case '"' -> inString = true;
+		case '{', '[' -> depth++;
+		case '}', ']' -> closeValue();
+		default -> {
+			// scalar value or its part
+		}
+		}
+	}
+
+	private void startValue() {
+		expectingValue = false;
+		recordCount++;
+		if (chunkStart == NOT_STARTED) {
+			chunkStart = position;
+			chunkFirstRecord = recordCount;
+		}
+	}
+
+	private void closeValue() {
+		depth--;
+		if (depth == 1 && lastValueEnd - chunkStart >= chunkSize) {
+			listener.chunk(chunkStart, lastValueEnd, chunkFirstRecord);
+			chunkStart = NOT_STARTED;
+		}
+	}
+
+	private void closeArray() {
+		arrayClosed = true;
+		depth = 0;
+		if (chunkStart != NOT_STARTED) {
+			listener.chunk(chunkStart, lastValueEnd, chunkFirstRecord);
+			chunkStart = NOT_STARTED;
+		}
+	}
+
+	private void checkWhitespace(byte b) {
+		if (!isWhitespace(b)) {
+			throw new ParseException("Source %s should contain array of entities".formatted(sourceName));
+		}
+	}
+
+	private boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	@Override
+	public void finish() {
+		if (!arrayClosed) {
+			throw new ParseException("Source %s ended before array was closed".formatted(sourceName));
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.streamlined.restapp.service.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class scans newline-delimited input and cuts it into chunks of complete
+ * lines, every line is counted as a record
+ */
+
+class LineScanner implements ChunkScanner {
+
+	private final long chunkSize;
+	private final ChunkListener listener;
+
+	private long position;
+	private long lineCount;
+	private long chunkStart;
+	private long chunkFirstLine = 1;
+
+	LineScanner(long chunkSize, ChunkListener listener) {
+		this.chunkSize = chunkSize;
+		this.listener = listener;
+	}
+
+	@Override
+	public void scan(byte[] buffer, int offset, int length) {
+		for (int k = offset; k < offset + length; k++, position++) {
+			scan(buffer[k]);
+		}
+	}
+
+	@Override
+	public void scan(ByteBuffer buffer) {
+		while (buffer.hasRemaining()) {
+			scan(buffer.get());
+			position++;
+		}
+	}
+
+	private void scan(byte b) {
+		if (b == '\n') {
+			lineCount++;
+			if (position + 1 - chunkStart >= chunkSize) {
+				listener.chunk(chunkStart, position + 1, chunkFirstLine);
+				chunkStart = position + 1;
+				chunkFirstLine = lineCount + 1;
+			}
+		}
+	}
+
+	@Override
+	public void finish() {
+		if (position > chunkStart) {
+			listener.chunk(chunkStart, position, chunkFirstLine);
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.streamlined.restapp.service.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream reads byte range of mapped file through windows mapped by
+ * {@link SharedFile}. Single mapping cannot exceed 2 GB, so range may span
+ * several windows. Stream neither maps nor closes file itself.
+ */
+
+class MappedRangeInputStream extends InputStream {
+
+	private final SharedFile file;
+	private final long end;
+	private long position;
+	private ByteBuffer window;
+
+	MappedRangeInputStream(SharedFile file, long start, long end) {
+		this.file = file;
+		this.position = start;
+		this.end = end;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!hasRemaining()) {
+			return -1;
+		}
+		position++;
+		return window.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		if (!hasRemaining()) {
+			return -1;
+		}
+		int count = Math.min(length, window.remaining());
+		window.get(buffer, offset, count);
+		position += count;
+		return count;
+	}
+
+	private boolean hasRemaining() throws IOException {
+		if (position >= end) {
+			return false;
+		}
+		if (window == null || !window.hasRemaining()) {
+			window = file.slice(position, end);
+		}
+		return true;
+	}
+
+	@Override
+	public int available() {
+		return (int) Math.min(Integer.MAX_VALUE, end - position);
+	}
+
+	@Override
+	public void close() {
+		window = null;
+	}
+
+}
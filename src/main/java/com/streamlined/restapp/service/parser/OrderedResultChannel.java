@@ -0,0 +1,77 @@
+package com.streamlined.restapp.service.parser;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Channel gives every sink its own bounded queue and drains queues in order of
+ * sink opening, so entities reach consumer in source order even though chunks
+ * are parsed concurrently
+ */
+
+class OrderedResultChannel extends ResultChannel {
+
+	private static final BlockingQueue<Item> SEALED = new ArrayBlockingQueue<>(1);
+
+	private final int sinkCapacity;
+	private final BlockingQueue<BlockingQueue<Item>> sinkQueues;
+	private volatile BlockingQueue<Item> currentQueue;
+
+	OrderedResultChannel(int sinkCapacity) {
+		this.sinkCapacity = sinkCapacity;
+		sinkQueues = new LinkedBlockingQueue<>();
+	}
+
+	@Override
+	Sink open() {
+		BlockingQueue<Item> queue = new ArrayBlockingQueue<>(sinkCapacity);
+		sinkQueues.add(queue);
+		return newSink(queue);
+	}
+
+	@Override
+	void seal() {
+		sinkQueues.add(SEALED);
+	}
+
+	@Override
+	Item poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (true) {
+			if (currentQueue == null
+					&& (currentQueue = sinkQueues.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) == null) {
+				return null;
+			}
+			if (currentQueue == SEALED) {
+				return Item.END;
+			}
+			Item item = currentQueue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			if (item == null) {
+				return null;
+			} else if (item == Item.END) {
+				currentQueue = null;
+			} else {
+				return item;
+			}
+		}
+	}
+
+	@Override
+	int size() {
+		int size = 0;
+		for (BlockingQueue<Item> queue : sinkQueues) {
+			size += queue.size();
+		}
+		BlockingQueue<Item> current = currentQueue;
+		return current == null ? size : size + current.size();
+	}
+
+	@Override
+	void cancel() {
+		super.cancel();
+		sinkQueues.forEach(BlockingQueue::clear);
+	}
+
+}
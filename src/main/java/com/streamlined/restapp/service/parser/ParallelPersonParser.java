@@ -1,140 +1,767 @@
 package com.streamlined.restapp.service.parser;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.streamlined.restapp.Utilities;
+import com.streamlined.restapp.config.ParserProperties;
 import com.streamlined.restapp.data.Person;
 import com.streamlined.restapp.exception.ParseException;
+import com.streamlined.restapp.service.country.CountryCatalog;
+import com.streamlined.restapp.service.parser.ResultChannel.Item;
+import com.streamlined.restapp.service.parser.ResultChannel.Sink;
+import com.streamlined.restapp.service.pipeline.PipelineMetrics;
+import com.streamlined.restapp.service.pipeline.Stage;
+import com.streamlined.restapp.service.pipeline.StageMetrics;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Class parses input JSON files and returns stream of person entities
+ * Class parses input JSON and newline-delimited JSON files and returns stream of
+ * person entities. Every file is scanned for boundaries of records (top-level
+ * array elements or lines) and cut into chunks of configured size which are
+ * parsed concurrently by workers of shared {@link ParserScheduler}, so even
+ * single uploaded file is parsed by several threads. Input streams, gzip files
+ * and zip archives are read sequentially, chunks of their data are kept in
+ * memory and parsed the same way, so upload may be parsed while it is still
+ * being received, every archive entry is treated as separate file. Malformed
+ * lines of newline-delimited files are reported as parse errors and skipped.
+ * Parsed entities are checked by bean validation on parsing threads, so
+ * validation scales with parsing and invalid entities are reported as parse
+ * errors instead of reaching database.
  */
 
 @Component
 @Slf4j
 public class ParallelPersonParser implements PersonParser {
 
-	private static final String SOURCE_FILE_PATTERN = "*.json";
-	private static final int SOURCE_FILE_QUEUE_INITIAL_CAPACITY = 100;
-	private static final int RESULT_QUEUE_INITIAL_CAPACITY = 10_000;
-	private static final int THREAD_COUNT = 4;
+	private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+	private static final int LINE_BUFFER_SIZE = 64 * 1024;
+	private static final int BUFFERED_CHUNKS_PER_THREAD = 2;
+	private static final int CPU_TIME_SAMPLE_INTERVAL = 1024;
+	private static final byte[] ARRAY_START = { '[' };
+	private static final byte[] ARRAY_END = { ']' };
 
+	private final ParserProperties properties;
+	private final ParserScheduler scheduler;
 	private final ObjectMapper mapper;
-	private final CollectionType collectionType;
+	private final ObjectReader personReader;
+	private final ObjectReader lineReader;
+	private final Validator validator;
+	private final boolean validating;
 
-	public ParallelPersonParser() {
+	public ParallelPersonParser(ParserProperties properties, ParserScheduler scheduler,
+			CountryCatalog countryCatalog, Validator validator) {
+		this.properties = properties;
+		this.scheduler = scheduler;
+		this.validator = validator;
+		validating = properties.isValidate() && validator.getConstraintsForClass(Person.class).isBeanConstrained();
 		mapper = new ObjectMapper();
 		mapper.registerModule(new JavaTimeModule());
-		collectionType = mapper.getTypeFactory().constructCollectionType(List.class, Person.class);
+		mapper.registerModule(new SimpleModule().addDeserializer(Person.class, new PersonDeserializer(countryCatalog)));
+		personReader = mapper.readerFor(Person.class);
+		lineReader = personReader.with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
 	}
 
 	/**
-	 * Method reads data from file {@code path}, parses data and creates stream of
-	 * person entities
-	 * 
-	 * @param path input file to be parsed
+	 * Method reads data from files of folder {@code path}, parses data and creates
+	 * stream of person entities. Returned stream should be closed to stop parsing
+	 * threads if it was not consumed completely.
+	 *
+	 * @param path         folder with input files to be parsed
+	 * @param errorHandler receiver of errors of skipped records, called by thread
+	 *                     consuming stream
 	 * @return stream of person entities
 	 * @throws ParseException if input file cannot be found, read, parsed, or closed
 	 */
-	public Stream<Person> stream(Path path) {
-		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new StreamingIterator(path), 0), false)
-				.filter(Objects::nonNull);
+	@Override
+	public Stream<Person> stream(Path path, Consumer<ParseError> errorHandler) {
+		return stream(new StreamingIterator(errorHandler, UnaryOperator.identity(), new PipelineMetrics()),
+				iterator -> iterator.startParsing(path));
 	}
 
-	private class StreamingIterator implements Iterator<Person> {
+	/**
+	 * Method parses single file {@code file} and creates stream of person
+	 * entities. File is split into chunks by byte ranges which are read and parsed
+	 * concurrently, compressed file is decompressed as a stream while split.
+	 * Returned stream should be closed to stop parsing threads if it was not
+	 * consumed completely.
+	 *
+	 * @param file         input file, its name defines format of input
+	 * @param errorHandler receiver of errors of skipped records, called by thread
+	 *                     consuming stream
+	 * @param inputTracker wrapper of every input opened for file, which counts
+	 *                     bytes read from it
+	 * @param metrics      metrics of upload to record parse, resolve and validate
+	 *                     stages to
+	 * @return stream of person entities
+	 * @throws ParseException if input file cannot be read, parsed, or closed
+	 */
+	@Override
+	public Stream<Person> stream(Path file, Consumer<ParseError> errorHandler, UnaryOperator<InputStream> inputTracker,
+			PipelineMetrics metrics) {
+		return stream(new StreamingIterator(errorHandler, inputTracker, metrics),
+				iterator -> iterator.startParsingFile(file));
+	}
+
+	/**
+	 * Method reads data from input stream, parses data and creates stream of person
+	 * entities. Input is read sequentially by single parser thread and closed
+	 * after it is read completely, chunks of its data are parsed concurrently.
+	 * Returned stream should be closed to stop parsing threads if it was not
+	 * consumed completely.
+	 *
+	 * @param input        input to be parsed, may be compressed by gzip or zip
+	 * @param sourceName   name of input, its extension defines format of input
+	 * @param errorHandler receiver of errors of skipped records, called by thread
+	 *                     consuming stream
+	 * @param metrics      metrics of upload to record parse, resolve and validate
+	 *                     stages to
+	 * @return stream of person entities
+	 * @throws ParseException if input cannot be read, parsed, or closed
+	 */
+	@Override
+	public Stream<Person> stream(InputStream input, String sourceName, Consumer<ParseError> errorHandler,
+			PipelineMetrics metrics) {
+		return stream(new StreamingIterator(errorHandler, UnaryOperator.identity(), metrics),
+				iterator -> iterator.startParsing(input, sourceName));
+	}
+
+	private Stream<Person> stream(StreamingIterator iterator, Consumer<StreamingIterator> starter) {
+		try {
+			starter.accept(iterator);
+		} catch (RuntimeException e) {
+			iterator.cancel();
+			throw e;
+		}
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+				.onClose(iterator::cancel);
+	}
+
+	private record Chunk(String sourceName, SourceFormat format, long firstRecord, ChunkSource source) {
+	}
+
+	@FunctionalInterface
+	private interface ChunkSource {
+
+		InputStream open() throws IOException;
 
-		private final ExecutorService executorService;
-		private final AtomicInteger workingThreadCount;
-		private final BlockingQueue<Path> sourceFileQueue;
-		private final BlockingQueue<Person> resultQueue;
+	}
+
+	@FunctionalInterface
+	private interface SplitTask {
 
-		private StreamingIterator(Path path) {
-			executorService = Executors.newCachedThreadPool();
-			workingThreadCount = new AtomicInteger(THREAD_COUNT);
-			sourceFileQueue = new ArrayBlockingQueue<>(SOURCE_FILE_QUEUE_INITIAL_CAPACITY);
-			resultQueue = new ArrayBlockingQueue<>(RESULT_QUEUE_INITIAL_CAPACITY);
+		void run() throws IOException, InterruptedException;
 
-			startParsing(path);
+	}
+
+	private class StreamingIterator implements Iterator<Person> {
+
+		private final ParserScheduler.Lane lane;
+		private final ResultChannel resultChannel;
+		private final Consumer<ParseError> errorHandler;
+		private final UnaryOperator<InputStream> inputTracker;
+		private final ObjectReader entityReader;
+		private final ObjectReader entityLineReader;
+		private final StageMetrics parseMetrics;
+		private final StageMetrics validateMetrics;
+		private final StageMetrics batchMetrics;
+		private final Semaphore bufferedChunkPermits;
+		private final List<SharedFile> openFiles;
+		private final ThreadMXBean threadBean;
+		private final boolean measuringCpuTime;
+		private long lastCpuTime;
+		private int pendingFileCount;
+		private boolean finished;
+		private long entityCount;
+		private Person nextEntity;
+
+		private StreamingIterator(Consumer<ParseError> errorHandler, UnaryOperator<InputStream> inputTracker,
+				PipelineMetrics metrics) {
+			this.errorHandler = errorHandler;
+			this.inputTracker = inputTracker;
+			entityReader = personReader.withAttribute(Stage.RESOLVE, metrics.stage(Stage.RESOLVE));
+			entityLineReader = lineReader.withAttribute(Stage.RESOLVE, metrics.stage(Stage.RESOLVE));
+			parseMetrics = metrics.stage(Stage.PARSE);
+			validateMetrics = metrics.stage(Stage.VALIDATE);
+			batchMetrics = metrics.stage(Stage.BATCH);
+			int threadCount = properties.getThreadCount();
+			int bufferedChunkCount = threadCount * BUFFERED_CHUNKS_PER_THREAD;
+			bufferedChunkPermits = new Semaphore(bufferedChunkCount);
+			resultChannel = ResultChannel.create(properties.isPreserveOrder(), properties.getResultQueueCapacity(),
+					threadCount);
+			parseMetrics.setParallelism(threadCount);
+			parseMetrics.observeQueue(() -> bufferedChunkCount - bufferedChunkPermits.availablePermits(),
+					bufferedChunkCount);
+			metrics.stage(Stage.RESOLVE).setParallelism(threadCount);
+			validateMetrics.setParallelism(threadCount);
+			batchMetrics.observeQueue(resultChannel::size, properties.getResultQueueCapacity());
+			threadBean = ManagementFactory.getThreadMXBean();
+			measuringCpuTime = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+			lastCpuTime = -1;
+			openFiles = new ArrayList<>();
+			lane = scheduler.open();
+			lane.onClose(this::disposeOpenFiles);
 		}
 
 		private void startParsing(Path dataPath) {
-			try (DirectoryStream<Path> pathStream = Files.newDirectoryStream(dataPath, SOURCE_FILE_PATTERN)) {
-				pathStream.forEach(sourceFileQueue::add);
-				performParseTasks();
+			List<Path> sourceFiles = new ArrayList<>();
+			try (DirectoryStream<Path> pathStream = Files.newDirectoryStream(dataPath, SourceFormat.FILE_PATTERN)) {
+				pathStream.forEach(sourceFiles::add);
 			} catch (IOException e) {
 				log.error("Error iterating through directory {}", dataPath);
 				throw new ParseException("Error iterating through directory %s".formatted(dataPath), e);
 			}
+			synchronized (resultChannel) {
+				pendingFileCount = sourceFiles.size();
+				sourceFiles.forEach(file -> lane.submit(() -> splitFile(file)));
+				sealIfNoFilesPending();
+			}
+		}
+
+		private void startParsingFile(Path file) {
+			synchronized (resultChannel) {
+				pendingFileCount = 1;
+				lane.submit(() -> splitFile(file));
+			}
+		}
+
+		private void startParsing(InputStream input, String sourceName) {
+			synchronized (resultChannel) {
+				pendingFileCount = 1;
+				lane.submit(() -> splitInput(input, sourceName));
+			}
+		}
+
+		/**
+		 * Method scans file {@code filePath} for boundaries of records and submits
+		 * parse task for every chunk of records found, compressed file is
+		 * decompressed as a stream while scanned
+		 *
+		 * @param filePath input file to be split
+		 */
+		private void splitFile(Path filePath) {
+			String fileName = filePath.getFileName().toString();
+			split(fileName, () -> {
+				switch (Compression.detect(filePath)) {
+				case NONE -> splitPlainFile(filePath, fileName);
+				case GZIP -> splitGzip(inputTracker.apply(Files.newInputStream(filePath)), fileName);
+				case ZIP -> splitArchive(inputTracker.apply(Files.newInputStream(filePath)), fileName);
+				}
+			});
+		}
+
+		/**
+		 * Method reads input {@code input} sequentially and submits parse task for
+		 * every chunk of records found, compressed input is decompressed while read
+		 *
+		 * @param input      input to be split
+		 * @param sourceName name of input
+		 */
+		private void splitInput(InputStream input, String sourceName) {
+			split(sourceName, () -> {
+				try (InputStream bufferedInput = new BufferedInputStream(input, SCAN_BUFFER_SIZE)) {
+					switch (Compression.detect(bufferedInput)) {
+					case NONE -> splitStream(bufferedInput, sourceName, getSourceFormat(sourceName));
+					case GZIP -> splitGzip(bufferedInput, sourceName);
+					case ZIP -> splitArchive(bufferedInput, sourceName);
+					}
+				}
+			});
+		}
+
+		private void split(String sourceName, SplitTask task) {
+			try {
+				task.run();
+			} catch (IOException e) {
+				if (!resultChannel.isCancelled()) {
+					log.error("Error reading file {}", sourceName);
+					submitFailure(new ParseException("Error reading file %s".formatted(sourceName), e));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException e) {
+				log.error("Error splitting file {}", sourceName);
+				submitFailure(e);
+			} catch (Error e) {
+				log.error("Error splitting file {}", sourceName, e);
+				submitFailure(new ParseException("Error splitting file %s".formatted(sourceName), e));
+			} finally {
+				synchronized (resultChannel) {
+					pendingFileCount--;
+					sealIfNoFilesPending();
+				}
+			}
+		}
+
+		/**
+		 * Method scans plain file for boundaries of records and submits parse task for
+		 * every chunk found. Scan and all chunks share one opened file, every
+		 * submitted chunk holds reference to file until its task is finished.
+		 *
+		 * @param filePath input file to be split
+		 * @param fileName name of input file
+		 * @throws IOException if file cannot be read
+		 */
+		private void splitPlainFile(Path filePath, String fileName) throws IOException {
+			SourceFormat format = getSourceFormat(fileName);
+			SharedFile file = openFile(filePath);
+			try (file) {
+				ChunkScanner scanner = ChunkScanner.create(format, fileName, properties.getChunkSize().toBytes(),
+						(start, end, firstRecord) -> {
+							file.retain();
+							submitChunk(new Chunk(fileName, format, firstRecord,
+									() -> inputTracker.apply(file.openRange(start, end))), file::close);
+						});
+				if (file.isMapped()) {
+					scanMappedFile(file, scanner);
+				} else {
+					scanFile(file, scanner);
+				}
+				if (!resultChannel.isCancelled()) {
+					scanner.finish();
+				}
+			}
+		}
+
+		private SharedFile openFile(Path filePath) throws IOException {
+			SharedFile file = SharedFile.open(filePath, properties.getInputMode());
+			synchronized (openFiles) {
+				openFiles.add(file);
+			}
+			return file;
+		}
+
+		/**
+		 * Method closes files left open by parse tasks dropped when parsing was
+		 * cancelled, it is called after last task of lane is finished
+		 */
+		private void disposeOpenFiles() {
+			synchronized (openFiles) {
+				openFiles.forEach(SharedFile::dispose);
+				openFiles.clear();
+			}
+		}
+
+		private void splitGzip(InputStream compressedInput, String fileName)
+				throws IOException, InterruptedException {
+			String sourceName = Compression.stripExtension(fileName);
+			try (compressedInput; InputStream input = new GZIPInputStream(compressedInput, SCAN_BUFFER_SIZE)) {
+				splitStream(input, sourceName, getSourceFormat(sourceName));
+			}
+		}
+
+		private void splitArchive(InputStream compressedInput, String fileName)
+				throws IOException, InterruptedException {
+			try (compressedInput; ZipInputStream input = new ZipInputStream(compressedInput)) {
+				for (ZipEntry entry; !resultChannel.isCancelled() && (entry = input.getNextEntry()) != null;) {
+					if (entry.isDirectory()) {
+						continue;
+					}
+					Optional<SourceFormat> format = SourceFormat.of(entry.getName());
+					if (format.isPresent()) {
+						splitStream(input, entry.getName(), format.get());
+					} else {
+						log.warn("Skipped entry {} of archive {} with unknown format", entry.getName(), fileName);
+					}
+				}
+			}
+		}
+
+		private SourceFormat getSourceFormat(String sourceName) {
+			return SourceFormat.of(sourceName).orElseThrow(() -> {
+				log.error("Unknown format of source {}", sourceName);
+				return new ParseException("Unknown format of source %s".formatted(sourceName));
+			});
+		}
+
+		/**
+		 * Method scans input stream which cannot be read again for boundaries of
+		 * records and submits parse task for every chunk found with copy of its
+		 * bytes. Number of buffered chunks is limited, when limit is reached queued
+		 * tasks of upload are run by current thread.
+		 *
+		 * @param input      input stream to be split
+		 * @param sourceName name of input to report errors
+		 * @param format     format of input
+		 * @throws IOException          if input cannot be read
+		 * @throws InterruptedException if parsing was cancelled
+		 */
+		private void splitStream(InputStream input, String sourceName, SourceFormat format)
+				throws IOException, InterruptedException {
+			ChunkBuffer chunkBuffer = new ChunkBuffer(SCAN_BUFFER_SIZE);
+			List<Chunk> foundChunks = new ArrayList<>();
+			ChunkScanner scanner = ChunkScanner.create(format, sourceName, properties.getChunkSize().toBytes(),
+					(start, end, firstRecord) -> {
+						byte[] data = chunkBuffer.copy(start, end);
+						chunkBuffer.discard(end);
+						foundChunks.add(new Chunk(sourceName, format, firstRecord, () -> new ByteArrayInputStream(data)));
+					});
+			byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+			for (int count; !resultChannel.isCancelled() && (count = input.read(buffer)) != -1;) {
+				chunkBuffer.append(buffer, 0, count);
+				scanner.scan(buffer, 0, count);
+				submitBufferedChunks(foundChunks);
+			}
+			if (!resultChannel.isCancelled()) {
+				scanner.finish();
+				submitBufferedChunks(foundChunks);
+			}
+		}
+
+		private void submitBufferedChunks(List<Chunk> chunks) throws InterruptedException {
+			for (Chunk chunk : chunks) {
+				while (!bufferedChunkPermits.tryAcquire()) {
+					if (!lane.runQueuedTask()) {
+						bufferedChunkPermits.acquire();
+						break;
+					}
+				}
+				submitChunk(chunk, bufferedChunkPermits::release);
+			}
+			chunks.clear();
+		}
+
+		private void scanFile(SharedFile file, ChunkScanner scanner) throws IOException {
+			try (InputStream input = file.openRange(0, file.size())) {
+				byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+				for (int count; !resultChannel.isCancelled() && (count = input.read(buffer)) != -1;) {
+					scanner.scan(buffer, 0, count);
+				}
+			}
+		}
+
+		private void scanMappedFile(SharedFile file, ChunkScanner scanner) throws IOException {
+			for (long position = 0; !resultChannel.isCancelled()
+					&& position < file.size(); position += SharedFile.WINDOW_SIZE) {
+				scanner.scan(file.slice(position, file.size()));
+			}
+		}
+
+		/**
+		 * Method opens sink and submits parse task under lock, so tasks are queued by
+		 * executor in the same order as their sinks are drained by ordered channel
+		 *
+		 * @param chunk chunk of file to parse
+		 */
+		private void submitChunk(Chunk chunk) {
+			submitChunk(chunk, () -> {
+			});
+		}
+
+		private void submitChunk(Chunk chunk, Runnable onFinish) {
+			synchronized (resultChannel) {
+				Sink sink = resultChannel.open();
+				lane.submit(() -> {
+					try {
+						parseChunk(chunk, sink);
+					} finally {
+						onFinish.run();
+					}
+				});
+			}
 		}
 
-		private void performParseTasks() {
-			for (int k = 0; k < THREAD_COUNT; k++) {
-				executorService.submit(this::performParseTask);
+		private void submitFailure(RuntimeException failure) {
+			synchronized (resultChannel) {
+				Sink sink = resultChannel.open();
+				sink.fail(failure);
+				sink.end();
 			}
-			executorService.shutdown();
 		}
 
-		private void performParseTask() {
+		private void sealIfNoFilesPending() {
+			if (pendingFileCount == 0) {
+				resultChannel.seal();
+				lane.shutdown();
+			}
+		}
+
+		private void parseChunk(Chunk chunk, Sink sink) {
+			String fileName = chunk.sourceName();
 			try {
-				for (Path filePath = null; (filePath = sourceFileQueue.poll()) != null;) {
-					parseFile(filePath);
+				switch (chunk.format()) {
+				case JSON -> parseArrayChunk(chunk, fileName, sink);
+				case NDJSON -> parseLineChunk(chunk, fileName, sink);
+				}
+			} catch (IOException e) {
+				if (!resultChannel.isCancelled()) {
+					log.error("Error parsing file {}", fileName);
+					sink.fail(new ParseException("Error parsing file %s".formatted(fileName), e));
 				}
+			} catch (RuntimeException e) {
+				sink.fail(e);
+			} catch (Error e) {
+				log.error("Error parsing file {}", fileName, e);
+				sink.fail(new ParseException("Error parsing file %s".formatted(fileName), e));
 			} finally {
-				workingThreadCount.decrementAndGet();
+				sink.end();
+			}
+		}
+
+		private void parseArrayChunk(Chunk chunk, String fileName, Sink sink) throws IOException {
+			try (InputStream input = new SequenceInputStream(Collections.enumeration(List.of(
+					new ByteArrayInputStream(ARRAY_START), chunk.source().open(), new ByteArrayInputStream(ARRAY_END))));
+					JsonParser parser = mapper.createParser(input)) {
+				parseArray(parser, fileName, chunk.firstRecord(), sink);
+			}
+		}
+
+		private void parseLineChunk(Chunk chunk, String fileName, Sink sink) throws IOException {
+			try (InputStream input = chunk.source().open()) {
+				parseLines(input, fileName, chunk.firstRecord(), sink);
+			}
+		}
+
+		/**
+		 * Method reads JSON array token by token and passes each person entity to sink
+		 * as soon as its object is closed, so memory consumption does not depend on
+		 * input size
+		 *
+		 * @param parser      parser of input array
+		 * @param sourceName  name of input to report errors
+		 * @param firstRecord number of first entity of array in source
+		 * @param sink        sink to pass entities to
+		 * @throws IOException    if input cannot be read
+		 * @throws ParseException if input is not an array of entities
+		 */
+		private void parseArray(JsonParser parser, String sourceName, long firstRecord, Sink sink)
+				throws IOException {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				log.error("File {} should contain array of entities", sourceName);
+				throw new ParseException("File %s should contain array of entities".formatted(sourceName));
+			}
+			if (parser.nextToken() == JsonToken.END_ARRAY) {
+				return;
+			}
+			long record = firstRecord;
+			try (MappingIterator<Person> entities = entityReader.readValues(parser)) {
+				for (; !resultChannel.isCancelled(); record++) {
+					long startTime = System.nanoTime();
+					if (!entities.hasNextValue()) {
+						break;
+					}
+					Person entity = entities.nextValue();
+					parseMetrics.record(1, System.nanoTime() - startTime);
+					publishIfValid(entity, sourceName, record, sink);
+				}
+			} catch (JsonProcessingException e) {
+				log.error("Error parsing entity {} of file {}", record, sourceName);
+				throw new ParseException(
+						"Error parsing entity %d of file %s: %s".formatted(record, sourceName, e.getOriginalMessage()),
+						e);
 			}
 		}
 
-		private void parseFile(Path filePath) {
-			try (BufferedReader reader = Files.newBufferedReader(filePath)) {
-				List<Person> entities = mapper.readValue(reader, collectionType);
-				for (Person entity : entities) {
-					resultQueue.put(entity);
+		/**
+		 * Method splits newline-delimited input into lines and parses every line
+		 * separately, so malformed line is reported to sink and skipped without
+		 * aborting the rest of input
+		 *
+		 * @param input      newline-delimited input
+		 * @param sourceName name of input to report errors
+		 * @param firstLine  number of first line of input in source
+		 * @param sink       sink to pass entities and errors to
+		 * @throws IOException if input cannot be read
+		 */
+		private void parseLines(InputStream input, String sourceName, long firstLine, Sink sink)
+				throws IOException {
+			byte[] buffer = new byte[LINE_BUFFER_SIZE];
+			long lineNumber = firstLine;
+			int length = 0;
+			for (int count; !resultChannel.isCancelled()
+					&& (count = input.read(buffer, length, buffer.length - length)) != -1;) {
+				int lineStart = 0;
+				for (int k = length; k < length + count; k++) {
+					if (buffer[k] == '\n') {
+						parseLine(buffer, lineStart, k, sourceName, lineNumber++, sink);
+						lineStart = k + 1;
+					}
 				}
-			} catch (IOException | InterruptedException e) {
-				log.error("Error parsing file {}", filePath.getFileName());
-				throw new ParseException("Error parsing file %s".formatted(filePath.getFileName()), e);
+				length += count - lineStart;
+				System.arraycopy(buffer, lineStart, buffer, 0, length);
+				if (length == buffer.length) {
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+			}
+			if (length > 0 && !resultChannel.isCancelled()) {
+				parseLine(buffer, 0, length, sourceName, lineNumber, sink);
+			}
+		}
+
+		private void parseLine(byte[] buffer, int start, int end, String sourceName, long lineNumber, Sink sink) {
+			while (start < end && isWhitespace(buffer[start])) {
+				start++;
+			}
+			while (end > start && isWhitespace(buffer[end - 1])) {
+				end--;
+			}
+			if (start == end) {
+				return;
+			}
+			try {
+				long startTime = System.nanoTime();
+				Person entity = entityLineReader.readValue(buffer, start, end - start);
+				parseMetrics.record(1, System.nanoTime() - startTime);
+				publishIfValid(entity, sourceName, lineNumber, sink);
+			} catch (IOException e) {
+				String reason = e instanceof JsonProcessingException jsonException ? jsonException.getOriginalMessage()
+						: e.getMessage();
+				sink.reject(new ParseError(sourceName, lineNumber, reason));
+			}
+		}
+
+		/**
+		 * Method passes entity to sink with its position in source if it satisfies
+		 * its constraints, otherwise violated constraints are reported to sink as
+		 * error of record
+		 *
+		 * @param entity     parsed entity
+		 * @param sourceName name of input to report errors
+		 * @param record     number of record of entity in source
+		 * @param sink       sink to pass entity or error to
+		 */
+		private void publishIfValid(Person entity, String sourceName, long record, Sink sink) {
+			if (validating) {
+				long startTime = System.nanoTime();
+				Set<ConstraintViolation<Person>> violations = validator.validate(entity);
+				validateMetrics.record(1, System.nanoTime() - startTime);
+				if (!violations.isEmpty()) {
+					sink.reject(new ParseError(sourceName, record, Utilities.getViolations(violations)));
+					return;
+				}
+			}
+			entity.setSource(sourceName);
+			entity.setRecord(record);
+			sink.publish(entity);
+		}
+
+		private boolean isWhitespace(byte b) {
+			return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+		}
+
+		/**
+		 * Method blocks until next entity is parsed or all parse tasks are finished.
+		 * CPU time of consuming thread is sampled periodically and added to metrics
+		 * of batch stage, so blocking hand-off can be told apart from busy waiting
+		 * by CPU time per entity.
+		 *
+		 * @return next parsed entity or {@code null} if all files have been parsed
+		 * @throws ParseException if any parse task failed, no entity arrived in time,
+		 *                        or consumer thread was interrupted
+		 */
+		private Person takeNextEntity() {
+			if (lastCpuTime < 0) {
+				recordConsumedCpuTime();
+			}
+			Item item;
+			while ((item = takeNextItem()).error() != null) {
+				errorHandler.accept(item.error());
+			}
+			if (item == Item.END) {
+				finished = true;
+				recordConsumedCpuTime();
+				return null;
+			} else if (item.failure() != null) {
+				cancel();
+				throw item.failure();
+			}
+			if (++entityCount % CPU_TIME_SAMPLE_INTERVAL == 0) {
+				recordConsumedCpuTime();
 			}
+			return item.entity();
 		}
 
-		private boolean isDone() {
-			return workingThreadCount.intValue() == 0 && resultQueue.isEmpty();
+		private Item takeNextItem() {
+			try {
+				long resultTimeout = properties.getResultTimeout().toSeconds();
+				Item item = resultChannel.poll(resultTimeout, TimeUnit.SECONDS);
+				if (item == null) {
+					cancel();
+					log.error("No parsed entity received within {} seconds", resultTimeout);
+					throw new ParseException("No parsed entity received within %d seconds".formatted(resultTimeout));
+				}
+				return item;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancel();
+				log.error("Waiting for parsed entities interrupted");
+				throw new ParseException("Waiting for parsed entities interrupted", e);
+			}
+		}
+
+		private void cancel() {
+			if (!resultChannel.isCancelled()) {
+				resultChannel.cancel();
+				lane.shutdownNow();
+			}
+		}
+
+		private void recordConsumedCpuTime() {
+			if (measuringCpuTime) {
+				long cpuTime = threadBean.getCurrentThreadCpuTime();
+				if (lastCpuTime >= 0) {
+					batchMetrics.recordCpuTime(cpuTime - lastCpuTime);
+				}
+				lastCpuTime = cpuTime;
+			}
 		}
 
 		@Override
 		public boolean hasNext() {
-			return !isDone();
+			if (nextEntity == null && !finished && !resultChannel.isCancelled()) {
+				nextEntity = takeNextEntity();
+			}
+			return nextEntity != null;
 		}
 
 		@Override
 		public Person next() {
-			if (isDone()) {
+			if (!hasNext()) {
 				throw new NoSuchElementException("No more elements left");
 			}
-			Person value = null;
-			while (!isDone() && (value = resultQueue.poll()) == null) {
-			}
+			Person value = nextEntity;
+			nextEntity = null;
 			return value;
 		}
 
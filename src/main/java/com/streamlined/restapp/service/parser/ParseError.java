@@ -0,0 +1,13 @@
+package com.streamlined.restapp.service.parser;
+
+/**
+ * Record of source which could not be parsed and was skipped
+ *
+ * @param source name of source file
+ * @param record number of record in source starting from one, line number for
+ *               newline-delimited sources
+ * @param reason description of error
+ */
+
+public record ParseError(String source, long record, String reason) {
+}
@@ -0,0 +1,312 @@
+package com.streamlined.restapp.service.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+import com.streamlined.restapp.config.ParserProperties;
+import com.streamlined.restapp.dto.ParserSchedulerStatus;
+import com.streamlined.restapp.exception.ParserOverloadedException;
+import com.streamlined.restapp.exception.ParseException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class runs parse tasks of all uploads on one bounded set of worker threads.
+ * Every upload opens its own lane, workers take tasks from lanes in round-robin
+ * order, so concurrent uploads share workers fairly, and single lane never
+ * occupies more than configured number of workers. Uploads exceeding
+ * configured limit wait for free lane and are rejected if none is released in
+ * time. Tasks report their own failures to their upload, worker only logs
+ * anything thrown by task and takes next one.
+ */
+
+@Component
+@Slf4j
+public class ParserScheduler {
+
+	private static final String WORKER_NAME_PREFIX = "parser-";
+
+	private final int maxWorkers;
+	private final int maxWorkersPerLane;
+	private final long admissionTimeoutMillis;
+	private final Semaphore lanePermits;
+	private final ReentrantLock lock;
+	private final Condition laneReady;
+	private final Deque<Lane> readyLanes;
+	private final List<Thread> workers;
+	private int activeLaneCount;
+	private int activeWorkerCount;
+	private int queuedTaskCount;
+	private boolean stopped;
+
+	public ParserScheduler(ParserProperties properties) {
+		maxWorkers = properties.getScheduler().getMaxWorkers();
+		maxWorkersPerLane = properties.getThreadCount();
+		admissionTimeoutMillis = properties.getScheduler().getAdmissionTimeout().toMillis();
+		lanePermits = new Semaphore(properties.getScheduler().getMaxUploads(), true);
+		lock = new ReentrantLock();
+		laneReady = lock.newCondition();
+		readyLanes = new ArrayDeque<>();
+		workers = new ArrayList<>(maxWorkers);
+		for (int k = 0; k < maxWorkers; k++) {
+			Thread worker = new Thread(this::work, WORKER_NAME_PREFIX + k);
+			worker.setDaemon(true);
+			worker.start();
+			workers.add(worker);
+		}
+	}
+
+	/**
+	 * Method opens lane for tasks of new upload, waiting for free lane if limit of
+	 * concurrent uploads is reached
+	 *
+	 * @return new lane
+	 * @throws ParserOverloadedException if no lane was released in time
+	 */
+	public Lane open() {
+		try {
+			if (!lanePermits.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				log.error("Parser is busy with other uploads");
+				throw new ParserOverloadedException("Parser is busy with other uploads, try again later");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("Waiting for parser interrupted");
+			throw new ParseException("Waiting for parser interrupted", e);
+		}
+		lock.lock();
+		try {
+			activeLaneCount++;
+			return new Lane();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Method returns current load of scheduler
+	 *
+	 * @return status of scheduler
+	 */
+	public ParserSchedulerStatus getStatus() {
+		lock.lock();
+		try {
+			return new ParserSchedulerStatus(maxWorkers, activeWorkerCount, queuedTaskCount, activeLaneCount,
+					lanePermits.getQueueLength());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		lock.lock();
+		try {
+			stopped = true;
+			laneReady.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		workers.forEach(Thread::interrupt);
+	}
+
+	private void work() {
+		while (true) {
+			Lane lane;
+			Runnable task;
+			lock.lock();
+			try {
+				while (!stopped && readyLanes.isEmpty()) {
+					laneReady.awaitUninterruptibly();
+				}
+				if (stopped) {
+					return;
+				}
+				lane = readyLanes.poll();
+				task = lane.startTask();
+			} finally {
+				lock.unlock();
+			}
+			try {
+				task.run();
+			} catch (Throwable e) {
+				// worker outlives failed task, so errors thrown by task never shrink pool
+				log.error("Parse task failed", e);
+			} finally {
+				lane.finishTask();
+			}
+		}
+	}
+
+	/**
+	 * Queue of parse tasks of one upload
+	 */
+	public final class Lane {
+
+		private final Queue<Runnable> tasks;
+		private final Set<Thread> runningThreads;
+		private Runnable closeAction;
+		private boolean shutdown;
+		private boolean closed;
+
+		private Lane() {
+			tasks = new ArrayDeque<>();
+			runningThreads = new HashSet<>();
+		}
+
+		/**
+		 * Method sets action run once lane is closed, when none of its tasks is
+		 * running or queued any more
+		 *
+		 * @param action action to run
+		 */
+		public void onClose(Runnable action) {
+			lock.lock();
+			try {
+				closeAction = action;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Method queues task, tasks of lane are started in order of submission
+		 *
+		 * @param task task to run
+		 */
+		public void submit(Runnable task) {
+			lock.lock();
+			try {
+				if (shutdown) {
+					return;
+				}
+				tasks.add(task);
+				queuedTaskCount++;
+				if (runningThreads.size() < maxWorkersPerLane) {
+					makeReady();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Method notifies lane that no more tasks will be submitted, lane is closed
+		 * after its last task is finished
+		 */
+		public void shutdown() {
+			lock.lock();
+			try {
+				shutdown = true;
+				closeIfDone();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Method drops queued tasks and interrupts running ones
+		 */
+		public void shutdownNow() {
+			lock.lock();
+			try {
+				shutdown = true;
+				queuedTaskCount -= tasks.size();
+				tasks.clear();
+				readyLanes.remove(this);
+				runningThreads.forEach(Thread::interrupt);
+				closeIfDone();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Method runs oldest queued task of lane in calling thread, which should be
+		 * running another task of the same lane and waits for queued tasks to make
+		 * progress
+		 *
+		 * @return true if task was run, false if lane had no queued tasks
+		 */
+		public boolean runQueuedTask() {
+			Runnable task;
+			lock.lock();
+			try {
+				task = tasks.poll();
+				if (task == null) {
+					return false;
+				}
+				queuedTaskCount--;
+				if (tasks.isEmpty()) {
+					readyLanes.remove(this);
+				}
+			} finally {
+				lock.unlock();
+			}
+			try {
+				task.run();
+			} catch (Throwable e) {
+				log.error("Parse task failed", e);
+			}
+			return true;
+		}
+
+		private Runnable startTask() {
+			Runnable task = tasks.poll();
+			queuedTaskCount--;
+			runningThreads.add(Thread.currentThread());
+			activeWorkerCount++;
+			if (!tasks.isEmpty() && runningThreads.size() < maxWorkersPerLane) {
+				makeReady();
+			}
+			return task;
+		}
+
+		private void finishTask() {
+			lock.lock();
+			try {
+				runningThreads.remove(Thread.currentThread());
+				activeWorkerCount--;
+				Thread.interrupted();
+				if (!tasks.isEmpty()) {
+					makeReady();
+				}
+				closeIfDone();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void makeReady() {
+			if (!readyLanes.contains(this)) {
+				readyLanes.add(this);
+				laneReady.signal();
+			}
+		}
+
+		private void closeIfDone() {
+			if (shutdown && !closed && tasks.isEmpty() && runningThreads.isEmpty()) {
+				closed = true;
+				activeLaneCount--;
+				lanePermits.release();
+				if (closeAction != null) {
+					closeAction.run();
+				}
+			}
+		}
+
+	}
+
+}
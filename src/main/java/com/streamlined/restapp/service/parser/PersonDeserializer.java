@@ -0,0 +1,222 @@
+package com.streamlined.restapp.service.parser;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.streamlined.restapp.data.Color;
+import com.streamlined.restapp.data.Continent;
+import com.streamlined.restapp.data.Country;
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.data.Sex;
+import com.streamlined.restapp.service.country.CountryCatalog;
+import com.streamlined.restapp.service.pipeline.Stage;
+import com.streamlined.restapp.service.pipeline.StageMetrics;
+
+/**
+ * Class reads person entity field by field straight from parser tokens without
+ * reflective bean binding. Values of usual token types are converted in place,
+ * other ones are passed to standard deserializers of context, so accepted input
+ * is the same as for bean deserialization. Country object is resolved to shared
+ * instance of {@link CountryCatalog} when every given field of it agrees with
+ * catalog, otherwise new country instance is created as before. Time of
+ * reading country objects is recorded to {@link Stage#RESOLVE} metrics if
+ * reader carries them as attribute.
+ */
+
+public class PersonDeserializer extends StdDeserializer<Person> {
+
+	private static final long serialVersionUID = 1L;
+	private static final Sex[] SEXES = Sex.values();
+	private static final Color[] COLORS = Color.values();
+	private static final Continent[] CONTINENTS = Continent.values();
+
+	private final transient CountryCatalog countryCatalog;
+
+	public PersonDeserializer(CountryCatalog countryCatalog) {
+		super(Person.class);
+		this.countryCatalog = countryCatalog;
+	}
+
+	@Override
+	public Person deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token == JsonToken.START_OBJECT) {
+			token = parser.nextToken();
+		} else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+			return (Person) context.handleUnexpectedToken(Person.class, parser);
+		}
+		Person person = new Person();
+		for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+			String field = parser.currentName();
+			JsonToken value = parser.nextToken();
+			switch (field) {
+			case "id" -> person.setId(readLong(parser, context, value));
+			case "name" -> person.setName(readString(parser, context, value));
+			case "birthday" -> person.setBirthday(readDate(parser, context, value));
+			case "sex" -> person.setSex(readEnum(parser, context, value, Sex.class, SEXES));
+			case "eyeColor" -> person.setEyeColor(readEnum(parser, context, value, Color.class, COLORS));
+			case "hairColor" -> person.setHairColor(readEnum(parser, context, value, Color.class, COLORS));
+			case "weight" -> person.setWeight(readDecimal(parser, context, value));
+			case "height" -> person.setHeight(readDecimal(parser, context, value));
+			case "countryOfOrigin" -> person.setCountryOfOrigin(readCountry(parser, context, value));
+			case "citizenship" -> person.setCitizenship(readCountry(parser, context, value));
+			case "favoriteMeals" -> person.setFavoriteMeals(readString(parser, context, value));
+			default -> context.handleUnknownProperty(parser, this, Person.class, field);
+			}
+		}
+		return person;
+	}
+
+	private Country readCountry(JsonParser parser, DeserializationContext context, JsonToken token)
+			throws IOException {
+		if (token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (token != JsonToken.START_OBJECT) {
+			return context.readValue(parser, Country.class);
+		}
+		long startTime = System.nanoTime();
+		Country country = readCountryObject(parser, context);
+		if (context.getAttribute(Stage.RESOLVE) instanceof StageMetrics metrics) {
+			metrics.record(1, System.nanoTime() - startTime);
+		}
+		return country;
+	}
+
+	private Country readCountryObject(JsonParser parser, DeserializationContext context) throws IOException {
+		Country sharedCountry = null;
+		Long id = null;
+		String name = null;
+		Continent continent = null;
+		String capital = null;
+		Integer population = null;
+		Double square = null;
+		for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+			String field = parser.currentName();
+			JsonToken value = parser.nextToken();
+			switch (field) {
+			case "id" -> {
+				id = readLong(parser, context, value);
+				sharedCountry = countryCatalog.find(id, null).orElse(null);
+			}
+			case "name" -> name = readString(parser, context, value, sharedCountry == null ? null : sharedCountry.getName());
+			case "continent" -> continent = readEnum(parser, context, value, Continent.class, CONTINENTS);
+			case "capital" -> capital = readString(parser, context, value,
+					sharedCountry == null ? null : sharedCountry.getCapital());
+			case "population" -> population = value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue()
+					: context.readValue(parser, Integer.class);
+			case "square" -> square = value.isNumeric() ? parser.getDoubleValue()
+					: context.readValue(parser, Double.class);
+			default -> context.handleUnknownProperty(parser, this, Country.class, field);
+			}
+		}
+		if (id == null) {
+			sharedCountry = countryCatalog.find(null, name).orElse(null);
+		}
+		if (sharedCountry != null && agrees(sharedCountry, name, continent, capital, population, square)) {
+			return sharedCountry;
+		}
+		return Country.builder().id(id).name(name).continent(continent).capital(capital)
+				.population(population == null ? 0 : population).square(square == null ? 0 : square).build();
+	}
+
+	private boolean agrees(Country country, String name, Continent continent, String capital, Integer population,
+			Double square) {
+		return (name == null || name.equals(country.getName()))
+				&& (continent == null || continent == country.getContinent())
+				&& (capital == null || capital.equals(country.getCapital()))
+				&& (population == null || population == country.getPopulation())
+				&& (square == null || Double.compare(square, country.getSquare()) == 0);
+	}
+
+	private Long readLong(JsonParser parser, DeserializationContext context, JsonToken token) throws IOException {
+		return switch (token) {
+		case VALUE_NULL -> null;
+		case VALUE_NUMBER_INT -> parser.getLongValue();
+		default -> context.readValue(parser, Long.class);
+		};
+	}
+
+	private String readString(JsonParser parser, DeserializationContext context, JsonToken token)
+			throws IOException {
+		return switch (token) {
+		case VALUE_NULL -> null;
+		case VALUE_STRING -> parser.getText();
+		default -> context.readValue(parser, String.class);
+		};
+	}
+
+	/**
+	 * Method returns known string without creating new one if text of current
+	 * token is equal to it
+	 */
+	private String readString(JsonParser parser, DeserializationContext context, JsonToken token, String knownValue)
+			throws IOException {
+		if (token == JsonToken.VALUE_STRING && knownValue != null && textEquals(parser, knownValue)) {
+			return knownValue;
+		}
+		return readString(parser, context, token);
+	}
+
+	private boolean textEquals(JsonParser parser, String value) throws IOException {
+		int length = parser.getTextLength();
+		if (length != value.length()) {
+			return false;
+		}
+		char[] text = parser.getTextCharacters();
+		int offset = parser.getTextOffset();
+		for (int k = 0; k < length; k++) {
+			if (text[offset + k] != value.charAt(k)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private BigDecimal readDecimal(JsonParser parser, DeserializationContext context, JsonToken token)
+			throws IOException {
+		return switch (token) {
+		case VALUE_NULL -> null;
+		case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+		default -> context.readValue(parser, BigDecimal.class);
+		};
+	}
+
+	private LocalDate readDate(JsonParser parser, DeserializationContext context, JsonToken token)
+			throws IOException {
+		if (token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (token != JsonToken.VALUE_STRING) {
+			return context.readValue(parser, LocalDate.class);
+		}
+		String text = parser.getText();
+		try {
+			return LocalDate.parse(text);
+		} catch (DateTimeParseException e) {
+			throw context.weirdStringException(text, LocalDate.class, e.getMessage());
+		}
+	}
+
+	private <E extends Enum<E>> E readEnum(JsonParser parser, DeserializationContext context, JsonToken token,
+			Class<E> type, E[] constants) throws IOException {
+		if (token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (token == JsonToken.VALUE_STRING) {
+			for (E constant : constants) {
+				if (textEquals(parser, constant.name())) {
+					return constant;
+				}
+			}
+		}
+		return context.readValue(parser, type);
+	}
+
+}
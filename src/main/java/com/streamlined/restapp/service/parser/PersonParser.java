@@ -1,12 +1,41 @@
 package com.streamlined.restapp.service.parser;
 
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.exception.ParseException;
+import com.streamlined.restapp.service.pipeline.PipelineMetrics;
 
 public interface PersonParser {
 
-	public Stream<Person> stream(Path path);
+	public default Stream<Person> stream(Path path) {
+		return stream(path, error -> {
+			throw new ParseException("Error parsing record %d of file %s: %s".formatted(error.record(),
+					error.source(), error.reason()));
+		});
+	}
+
+	public Stream<Person> stream(Path path, Consumer<ParseError> errorHandler);
+
+	public Stream<Person> stream(Path file, Consumer<ParseError> errorHandler, UnaryOperator<InputStream> inputTracker,
+			PipelineMetrics metrics);
+
+	public default Stream<Person> stream(InputStream input, String sourceName, Consumer<ParseError> errorHandler) {
+		return stream(input, sourceName, errorHandler, new PipelineMetrics());
+	}
+
+	public Stream<Person> stream(InputStream input, String sourceName, Consumer<ParseError> errorHandler,
+			PipelineMetrics metrics);
+
+	public default Stream<Person> stream(ReadableByteChannel channel, String sourceName,
+			Consumer<ParseError> errorHandler) {
+		return stream(Channels.newInputStream(channel), sourceName, errorHandler);
+	}
 
 }
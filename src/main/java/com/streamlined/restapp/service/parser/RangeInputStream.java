@@ -0,0 +1,48 @@
+package com.streamlined.restapp.service.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Input stream reads byte range of file channel using positional reads, so
+ * several streams may share one channel. Channel is not closed with stream.
+ */
+
+class RangeInputStream extends InputStream {
+
+	private final FileChannel channel;
+	private final long end;
+	private long position;
+
+	RangeInputStream(FileChannel channel, long start, long end) {
+		this.channel = channel;
+		this.position = start;
+		this.end = end;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] buffer = new byte[1];
+		return read(buffer, 0, 1) == -1 ? -1 : buffer[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		if (position >= end) {
+			return -1;
+		}
+		int count = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, end - position)), position);
+		if (count > 0) {
+			position += count;
+		}
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return (int) Math.min(Integer.MAX_VALUE, end - position);
+	}
+
+}
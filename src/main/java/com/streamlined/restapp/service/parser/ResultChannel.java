@@ -0,0 +1,126 @@
+package com.streamlined.restapp.service.parser;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.streamlined.restapp.data.Person;
+
+/**
+ * Class passes parsed entities from parsing threads to consumer. Every parsing
+ * task opens its own sink, puts entities into it and ends it. Once all sinks
+ * have been opened, channel is sealed and consumer receives end-of-stream
+ * marker after last sink is ended.
+ */
+
+abstract class ResultChannel {
+
+	private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+	/**
+	 * Element of channel: either parsed entity, error of skipped record, failure of
+	 * parsing task, or end-of-stream marker
+	 */
+	record Item(Person entity, ParseError error, RuntimeException failure) {
+
+		static final Item END = new Item(null, null, null);
+
+	}
+
+	/**
+	 * Input end of channel owned by single parsing task
+	 */
+	final class Sink {
+
+		private final BlockingQueue<Item> queue;
+
+		private Sink(BlockingQueue<Item> queue) {
+			this.queue = queue;
+		}
+
+		void publish(Person entity) {
+			offer(queue, new Item(entity, null, null));
+		}
+
+		void reject(ParseError error) {
+			offer(queue, new Item(null, error, null));
+		}
+
+		void fail(RuntimeException failure) {
+			offer(queue, new Item(null, null, failure));
+		}
+
+		void end() {
+			offer(queue, Item.END);
+		}
+
+	}
+
+	private volatile boolean cancelled;
+
+	static ResultChannel create(boolean preserveOrder, int capacity, int parallelism) {
+		return preserveOrder ? new OrderedResultChannel(Math.max(1, capacity / parallelism))
+				: new UnorderedResultChannel(capacity);
+	}
+
+	/**
+	 * Method opens new sink, order of opening defines order of entities for
+	 * ordered channel
+	 *
+	 * @return new sink
+	 */
+	abstract Sink open();
+
+	/**
+	 * Method notifies channel that no more sinks will be opened
+	 */
+	abstract void seal();
+
+	/**
+	 * Method waits for next item of channel
+	 *
+	 * @param timeout maximum time to wait
+	 * @param unit    unit of timeout
+	 * @return next entity or failure, {@link Item#END} if all sinks have been
+	 *         ended and channel is sealed, {@code null} if timeout elapsed
+	 * @throws InterruptedException if consumer thread was interrupted
+	 */
+	abstract Item poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+	/**
+	 * Method returns approximate number of items waiting for consumer
+	 *
+	 * @return number of queued items
+	 */
+	abstract int size();
+
+	Sink newSink(BlockingQueue<Item> queue) {
+		return new Sink(queue);
+	}
+
+	/**
+	 * Method blocks until queue accepts item, giving up if consumer cancelled
+	 * channel or producing thread was interrupted
+	 *
+	 * @param queue queue to put item to
+	 * @param item  item to put
+	 */
+	<T> void offer(BlockingQueue<T> queue, T item) {
+		try {
+			while (!cancelled && !queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+				// wait until consumer takes next item or cancels channel
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancelled = true;
+		}
+	}
+
+	void cancel() {
+		cancelled = true;
+	}
+
+	boolean isCancelled() {
+		return cancelled;
+	}
+
+}
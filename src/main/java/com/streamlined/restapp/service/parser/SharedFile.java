@@ -0,0 +1,180 @@
+package com.streamlined.restapp.service.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class shares one channel of input file among scan of record boundaries and
+ * parse tasks of its chunks. In mapped mode file is mapped once in windows
+ * which are scanned and then sliced for chunks, so pages read by scan are
+ * parsed from the same mapping and no chunk maps file again. Every user holds
+ * reference to file, channel is closed and windows are unmapped as soon as last
+ * reference is released instead of waiting for garbage collector.
+ */
+
+@Slf4j
+class SharedFile implements Closeable {
+
+	static final long WINDOW_SIZE = 1L << 30;
+
+	private static final MethodHandle UNMAPPER = findUnmapper();
+
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer[] windows;
+	private int referenceCount;
+	private boolean disposed;
+
+	private SharedFile(FileChannel channel, long size, MappedByteBuffer[] windows) {
+		this.channel = channel;
+		this.size = size;
+		this.windows = windows;
+		referenceCount = 1;
+	}
+
+	/**
+	 * Method opens file, caller holds its first reference
+	 *
+	 * @param file input file
+	 * @param mode way file is read
+	 * @return opened file
+	 * @throws IOException if file cannot be opened or mapped
+	 */
+	static SharedFile open(Path file, InputMode mode) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			MappedByteBuffer[] windows = null;
+			if (mode == InputMode.MAPPED) {
+				windows = new MappedByteBuffer[(int) ((size + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+				for (int k = 0; k < windows.length; k++) {
+					long position = k * WINDOW_SIZE;
+					windows[k] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+							Math.min(WINDOW_SIZE, size - position));
+				}
+			}
+			return new SharedFile(channel, size, windows);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	long size() {
+		return size;
+	}
+
+	boolean isMapped() {
+		return windows != null;
+	}
+
+	/**
+	 * Method adds reference to file for new user
+	 */
+	synchronized void retain() {
+		if (disposed) {
+			throw new IllegalStateException("File is already closed");
+		}
+		referenceCount++;
+	}
+
+	/**
+	 * Method releases reference of caller and closes file if no reference is left
+	 */
+	@Override
+	public synchronized void close() {
+		if (!disposed && --referenceCount == 0) {
+			dispose();
+		}
+	}
+
+	/**
+	 * Method closes file regardless of references, it is called when no task which
+	 * might read file is left
+	 */
+	synchronized void dispose() {
+		if (disposed) {
+			return;
+		}
+		disposed = true;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			log.warn("Cannot close input file", e);
+		}
+		if (windows != null && UNMAPPER != null) {
+			for (MappedByteBuffer window : windows) {
+				unmap(window);
+			}
+		}
+		windows = null;
+	}
+
+	/**
+	 * Method opens byte range of file. Raw bytes are passed to JSON parser which
+	 * decodes UTF-8 itself, in mapped mode they are copied straight from mapped
+	 * file.
+	 *
+	 * @param start position of first byte of range
+	 * @param end   position next to last byte of range
+	 * @return input stream of range, closing it does not release file
+	 */
+	InputStream openRange(long start, long end) {
+		return isMapped() ? new MappedRangeInputStream(this, start, end) : new RangeInputStream(channel, start, end);
+	}
+
+	/**
+	 * Method returns bytes of mapped file from {@code position} up to
+	 * {@code end} or end of window which contains {@code position}
+	 *
+	 * @param position position of first byte
+	 * @param end      position next to last byte of range
+	 * @return buffer of its own over mapped window
+	 * @throws IOException if file is already closed
+	 */
+	synchronized ByteBuffer slice(long position, long end) throws IOException {
+		if (disposed) {
+			throw new IOException("File is already closed");
+		}
+		int index = (int) (position / WINDOW_SIZE);
+		long windowStart = index * WINDOW_SIZE;
+		MappedByteBuffer window = windows[index];
+		return window.duplicate().position((int) (position - windowStart))
+				.limit((int) Math.min(window.capacity(), end - windowStart));
+	}
+
+	private static void unmap(MappedByteBuffer window) {
+		try {
+			UNMAPPER.invokeExact((ByteBuffer) window);
+		} catch (Throwable e) {
+			log.warn("Cannot unmap input file window, it is released by garbage collector", e);
+		}
+	}
+
+	private static MethodHandle findUnmapper() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+			unsafeField.setAccessible(true);
+			return MethodHandles.lookup()
+					.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(unsafeField.get(null));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			log.warn("Mapped input files cannot be unmapped explicitly, they are released by garbage collector");
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.streamlined.restapp.service.parser;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Format of person data source recognized by file extension
+ */
+
+public enum SourceFormat {
+
+	/**
+	 * Single JSON array of entities
+	 */
+	JSON(".json"),
+
+	/**
+	 * Newline-delimited JSON, one entity per line
+	 */
+	NDJSON(".ndjson", ".jsonl");
+
+	static final String FILE_PATTERN = "*.{json,ndjson,jsonl,gz,zip}";
+
+	private final List<String> extensions;
+
+	SourceFormat(String... extensions) {
+		this.extensions = List.of(extensions);
+	}
+
+	public String getDefaultExtension() {
+		return extensions.get(0);
+	}
+
+	public static Optional<SourceFormat> of(String fileName) {
+		String name = fileName.toLowerCase();
+		return Arrays.stream(values()).filter(format -> format.extensions.stream().anyMatch(name::endsWith))
+				.findFirst();
+	}
+
+	public static Optional<SourceFormat> of(Path file) {
+		return of(file.getFileName().toString());
+	}
+
+}
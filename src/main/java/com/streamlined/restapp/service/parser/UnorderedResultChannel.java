@@ -0,0 +1,71 @@
+package com.streamlined.restapp.service.parser;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Channel shares one queue between all sinks, so entities are passed to
+ * consumer as soon as any parsing task produces them
+ */
+
+class UnorderedResultChannel extends ResultChannel {
+
+	private static final Item SEALED = new Item(null, null, null);
+
+	private final BlockingQueue<Item> queue;
+	private final AtomicInteger openedSinkCount;
+	private int endedSinkCount;
+	private boolean sealed;
+
+	UnorderedResultChannel(int capacity) {
+		queue = new ArrayBlockingQueue<>(capacity);
+		openedSinkCount = new AtomicInteger();
+	}
+
+	@Override
+	Sink open() {
+		openedSinkCount.incrementAndGet();
+		return newSink(queue);
+	}
+
+	@Override
+	void seal() {
+		offer(queue, SEALED);
+	}
+
+	@Override
+	Item poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!isFinished()) {
+			Item item = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			if (item == null) {
+				return null;
+			} else if (item == SEALED) {
+				sealed = true;
+			} else if (item == Item.END) {
+				endedSinkCount++;
+			} else {
+				return item;
+			}
+		}
+		return Item.END;
+	}
+
+	private boolean isFinished() {
+		return sealed && endedSinkCount == openedSinkCount.get();
+	}
+
+	@Override
+	int size() {
+		return queue.size();
+	}
+
+	@Override
+	void cancel() {
+		super.cancel();
+		queue.clear();
+	}
+
+}
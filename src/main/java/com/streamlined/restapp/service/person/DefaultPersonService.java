@@ -1,32 +1,66 @@
 package com.streamlined.restapp.service.person;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.streamlined.restapp.Utilities;
+import com.streamlined.restapp.config.IngestionProperties;
 import com.streamlined.restapp.dao.PersonRepository;
 import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.EssentialPersonDto;
+import com.streamlined.restapp.dto.ParserSchedulerStatus;
+import com.streamlined.restapp.dto.PersonFilter;
 import com.streamlined.restapp.dto.PersonDto;
 import com.streamlined.restapp.dto.PersonListDto;
 import com.streamlined.restapp.dto.ReportDto;
+import com.streamlined.restapp.dto.ReportedPersonDto;
+import com.streamlined.restapp.dto.UploadJobDto;
+import com.streamlined.restapp.dto.UploadOptions;
 import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.dto.UploadSessionDto;
 import com.streamlined.restapp.dto.mapper.PersonMapper;
+import com.streamlined.restapp.exception.EntityNotFoundException;
+import com.streamlined.restapp.exception.FileStorageException;
+import com.streamlined.restapp.exception.IncorrectDataException;
+import com.streamlined.restapp.service.counter.PersonCounter;
 import com.streamlined.restapp.service.notification.NotificationService;
+import com.streamlined.restapp.service.parser.ParseError;
+import com.streamlined.restapp.service.parser.ParserScheduler;
 import com.streamlined.restapp.service.parser.PersonParser;
 import com.streamlined.restapp.service.reporter.Reporter;
+import com.streamlined.restapp.service.upload.ImportRegistry;
+import com.streamlined.restapp.service.upload.UploadJob;
+import com.streamlined.restapp.service.upload.UploadJobManager;
+import com.streamlined.restapp.service.upload.UploadSession;
+import com.streamlined.restapp.service.upload.UploadSessionManager;
+import com.streamlined.restapp.service.writer.OnConflict;
+import com.streamlined.restapp.service.writer.PersonWriter;
+import com.streamlined.restapp.service.writer.WriteMode;
+import com.streamlined.restapp.service.writer.WriteProgress;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service class for person entity
@@ -34,24 +68,50 @@ import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional(readOnly = true)
 public class DefaultPersonService implements PersonService {
 
+	private static final int DETACH_BATCH_SIZE = 1000;
+
 	private final PersonRepository personRepository;
+	private final EntityManager entityManager;
 	private final PersonMapper personMapper;
 	private final Validator validator;
 	private final Reporter reporter;
 	private final PersonParser personParser;
+	private final List<PersonWriter> personWriters;
+	private final List<PersonCounter> personCounters;
+	private final IngestionProperties ingestionProperties;
+	private final UploadJobManager uploadJobManager;
+	private final ImportRegistry importRegistry;
+	private final UploadSessionManager uploadSessionManager;
+	private final ParserScheduler parserScheduler;
 	private final NotificationService notificationService;
 
+	/**
+	 * Method passes all persons to consumer as they are read from database cursor.
+	 * Persistence context is cleared after every batch of persons, so memory used
+	 * does not depend on number of persons.
+	 *
+	 * @param consumer consumer of persons
+	 */
 	@Override
-	public Stream<PersonDto> getAllPersons() {
-		return Utilities.stream(personRepository.findAll()).map(personMapper::toDto);
+	public void forEachPerson(Consumer<PersonDto> consumer) {
+		try (Stream<Person> personStream = personRepository.streamAllWithCountries()) {
+			int count = 0;
+			for (Iterator<Person> i = personStream.iterator(); i.hasNext();) {
+				consumer.accept(personMapper.toDto(i.next()));
+				if (++count % DETACH_BATCH_SIZE == 0) {
+					entityManager.clear();
+				}
+			}
+		}
 	}
 
 	@Override
 	public Optional<PersonDto> getPersonById(Long id) {
-		return personRepository.findById(id).map(personMapper::toDto);
+		return personRepository.findWithCountriesById(id).map(personMapper::toDto);
 	}
 
 	@Override
@@ -61,6 +121,7 @@ public class DefaultPersonService implements PersonService {
 		entity.setId(person.id());
 		Utilities.checkIfValid(validator, entity, "person");
 		PersonDto dto = personMapper.toDto(personRepository.save(entity));
+		invalidateCounts();
 		notificationService.notify("person", dto, "saved");
 		return dto;
 	}
@@ -72,6 +133,7 @@ public class DefaultPersonService implements PersonService {
 		entity.setId(id);
 		Utilities.checkIfValid(validator, entity, "person");
 		PersonDto dto = personMapper.toDto(personRepository.save(entity));
+		invalidateCounts();
 		notificationService.notify("person", dto, "saved");
 		return dto;
 	}
@@ -80,6 +142,7 @@ public class DefaultPersonService implements PersonService {
 	@Transactional
 	public void removeById(Long id) {
 		personRepository.deleteById(id);
+		invalidateCounts();
 		notificationService.notify("person", id, "removed");
 	}
 
@@ -87,57 +150,275 @@ public class DefaultPersonService implements PersonService {
 	@Transactional
 	public void removeAllPersons() {
 		personRepository.deleteAll();
+		importRegistry.clear();
+		invalidateCounts();
 		notificationService.notify("all persons", "removed");
 	}
 
+	/**
+	 * Method returns page of persons matching probe ordered by id. Page following
+	 * given cursor is read by keyset, otherwise page of given number is read by
+	 * offset. Neither of them needs total number of matching persons, which is
+	 * counted, estimated, taken from cache or skipped as requested, next page is
+	 * detected by reading one person more than page size.
+	 * Only listed columns are selected, so no entities are loaded. Persons are
+	 * filtered by conditions which can be answered by indexes of person table.
+	 *
+	 * @param pageNumber  number of page, ignored if cursor is given
+	 * @param pageSize    size of page
+	 * @param after       cursor of page to be read or null
+	 * @param totalMode   way total number of persons is computed
+	 * @param personProbe probe which persons of page match
+	 * @param filter      ranges, lists and prefixes persons of page match or null
+	 * @return page of persons with cursor of next page if there is one
+	 */
 	@Override
-	public PersonListDto getPersonList(int pageNumber, int pageSize, Person personProbe) {
-		Example<Person> example = Example.of(personProbe, getPersonMatcher());
-		PageRequest pageable = PageRequest.of(pageNumber, pageSize);
-		Page<Person> personList = personRepository.findAll(example, pageable);
-		return new PersonListDto(personList.map(personMapper::toListDto).toList(), personList.getTotalPages());
+	public PersonListDto getPersonList(int pageNumber, int pageSize, String after, TotalMode totalMode,
+			Person personProbe, PersonFilter filter) {
+		if (pageNumber < 0 || pageSize < 1) {
+			log.error("Incorrect page number {} or page size {}", pageNumber, pageSize);
+			throw new IncorrectDataException(
+					"Incorrect page number %d or page size %d".formatted(pageNumber, pageSize));
+		}
+		if (pageSize == Integer.MAX_VALUE) {
+			log.error("Page size {} is too large", pageSize);
+			throw new IncorrectDataException("Page size %d is too large".formatted(pageSize));
+		}
+		if (after == null && (long) pageNumber * pageSize > Integer.MAX_VALUE) {
+			log.error("Page number {} of size {} is too large", pageNumber, pageSize);
+			throw new IncorrectDataException(
+					"Page number %d of size %d is too large, use cursor of next page".formatted(pageNumber, pageSize));
+		}
+		Specification<Person> specification = PersonSpecifications.matching(personProbe, filter);
+		List<EssentialPersonDto> personList = after == null
+				? personRepository.findEssential(specification, (long) pageNumber * pageSize, pageSize + 1)
+				: personRepository.findEssential(specification.and(PersonListCursor.after(after)), 0, pageSize + 1);
+		Long totalElements = totalMode == TotalMode.NONE ? null
+				: getPersonCounter(totalMode).count(specification, PersonSpecifications.getKey(personProbe, filter));
+		Integer totalPages = totalElements == null ? null : (int) Math.ceil((double) totalElements / pageSize);
+		if (personList.size() > pageSize) {
+			List<EssentialPersonDto> page = personList.subList(0, pageSize);
+			return new PersonListDto(page, totalElements, totalPages, totalMode,
+					PersonListCursor.encode(page.get(pageSize - 1).id()));
+		}
+		return new PersonListDto(personList, totalElements, totalPages, totalMode, null);
 	}
 
-	private ExampleMatcher getPersonMatcher() {
-		return ExampleMatcher.matchingAll().withIgnorePaths("countryOfOrigin.continent", "countryOfOrigin.population",
-				"countryOfOrigin.square", "citizenship.continent", "citizenship.population", "citizenship.square")
-				.withIgnoreNullValues();
+	private PersonCounter getPersonCounter(TotalMode totalMode) {
+		return personCounters.stream().filter(counter -> counter.getTotalMode() == totalMode).findFirst()
+				.orElseThrow();
 	}
 
-	private Stream<Person> getFilteredPersonEntityStream(Person personProbe) {
-		Example<Person> example = Example.of(personProbe);
-		return personRepository.findAll(example).stream();
+	private Stream<ReportedPersonDto> getFilteredPersonStream(Person personProbe, PersonFilter filter) {
+		return personRepository.streamReported(PersonSpecifications.matching(personProbe, filter));
 	}
 
 	@Override
-	public ReportDto getFilteredPersonsAsFileResource(Person personProbe) {
-		Stream<Person> personStream = getFilteredPersonEntityStream(personProbe);
-		return new ReportDto(reporter.getFileResource(personStream), reporter.getFileName(), reporter.getMediaType());
+	public ReportDto getFilteredPersonsAsFileResource(Person personProbe, PersonFilter filter) {
+		try (Stream<ReportedPersonDto> personStream = getFilteredPersonStream(personProbe, filter)) {
+			return new ReportDto(reporter.getFileResource(personStream), reporter.getFileName(),
+					reporter.getMediaType());
+		}
 	}
 
 	@Override
-	@Transactional
-	public UploadResponse uploadFile(MultipartFile multipartFile) {
-		Path folder = null;
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public UploadJobDto uploadFile(MultipartFile multipartFile, UploadOptions options) {
+		MessageDigest digest = Utilities.getContentDigest();
+		return submitImport(Utilities.copyToTemporaryFile(multipartFile, digest), digest, options);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public UploadJobDto uploadStream(InputStream input, String fileName, UploadOptions options) {
+		MessageDigest digest = Utilities.getContentDigest();
+		return submitImport(Utilities.copyToTemporaryFile(new DigestInputStream(input, digest), fileName), digest,
+				options);
+	}
+
+	/**
+	 * Method submits import of stored upload file, which is parsed by byte ranges
+	 * concurrently and deleted after import
+	 *
+	 * @param file    stored upload file
+	 * @param digest  digest updated with file content while it was stored
+	 * @param options options of upload
+	 * @return job of upload
+	 */
+	private UploadJobDto submitImport(Path file, MessageDigest digest, UploadOptions options) {
 		try {
-			folder = Utilities.copyToTemporaryFolder(multipartFile);
-			Stream<Person> personStream = personParser.stream(folder);
-			int succeededEntries = 0;
-			int failedEntries = 0;
-			for (Iterator<Person> i = personStream.iterator(); i.hasNext();) {
-				try {
-					personRepository.save(i.next());
-					succeededEntries++;
-				} catch (Exception e) {
-					failedEntries++;
-				}
-			}
-			UploadResponse uploadResponse = new UploadResponse(succeededEntries, failedEntries);
-			notificationService.notify("%d persons".formatted(succeededEntries), "uploaded");
-			return uploadResponse;
+			return importRegistry.submit(HexFormat.of().formatHex(digest.digest()), getOnConflict(options),
+					file.toFile().length(),
+					job -> importEntities(
+							errorHandler -> personParser.stream(file, errorHandler, job::track, job.getMetrics()),
+							options, job),
+					() -> Utilities.cleanTemporaryFolder(file.getParent())).toDto();
+		} catch (RuntimeException e) {
+			Utilities.cleanTemporaryFolder(file.getParent());
+			throw e;
+		}
+	}
+
+	/**
+	 * Method parses upload input and writes parsed entities, input is closed
+	 * after upload
+	 *
+	 * @param source     upload input
+	 * @param sourceName name of upload file which tells its format
+	 * @param options    options of upload
+	 * @param job        job which receives progress of upload
+	 * @return response of upload
+	 */
+	private UploadResponse importStream(InputStream source, String sourceName, UploadOptions options,
+			UploadJob job) {
+		try (InputStream input = job.track(source)) {
+			return importEntities(
+					errorHandler -> personParser.stream(input, sourceName, errorHandler, job.getMetrics()), options,
+					job);
+		} catch (IOException e) {
+			log.error("Cannot read upload input");
+			throw new FileStorageException("Cannot read upload input", e);
+		}
+	}
+
+	/**
+	 * Method writes entities parsed from upload and reports skipped records
+	 *
+	 * @param parser  function which starts parsing of upload with given receiver of
+	 *                errors of skipped records
+	 * @param options options of upload
+	 * @param job     job which receives progress of upload
+	 * @return response of upload
+	 */
+	private UploadResponse importEntities(Function<Consumer<ParseError>, Stream<Person>> parser,
+			UploadOptions options, UploadJob job) {
+		UploadReport report = new UploadReport(ingestionProperties.getMaxReportedFailures());
+		UploadResponse writeResponse;
+		try (Stream<Person> personStream = parser.apply(error -> {
+			report.rejected(error.source(), error.record(), error.reason());
+			job.rejected();
+		})) {
+			writeResponse = getPersonWriter(options).write(personStream.peek(person -> job.parsed()).iterator(),
+					getOnConflict(options), job);
 		} finally {
-			Utilities.cleanTemporaryFolder(folder);
+			invalidateCounts();
 		}
+		UploadResponse uploadResponse = report.complete(writeResponse);
+		notificationService.notify("%d persons".formatted(uploadResponse.succeededEntries()), "uploaded");
+		return uploadResponse;
+	}
+
+	@Override
+	public Optional<UploadJobDto> getUploadJob(String jobId) {
+		return uploadJobManager.find(jobId).map(UploadJob::toDto);
+	}
+
+	@Override
+	public UploadSessionDto createUploadSession(String fileName, Long size, UploadOptions options) {
+		UploadSession session = uploadSessionManager.open(fileName, size);
+		try {
+			session.setJob(uploadJobManager.submitSession(size == null ? 0 : size,
+					job -> importSession(session, options, job),
+					() -> uploadSessionManager.close(session)));
+		} catch (RuntimeException e) {
+			uploadSessionManager.close(session);
+			throw e;
+		}
+		return session.toDto();
+	}
+
+	/**
+	 * Method waits for first chunk of session before parsing is started, so open
+	 * session which receives no data holds no lane of parser
+	 *
+	 * @param session upload session
+	 * @param options options of upload
+	 * @param job     job which receives progress of upload
+	 * @return response of upload
+	 */
+	private UploadResponse importSession(UploadSession session, UploadOptions options, UploadJob job) {
+		try {
+			session.awaitStart();
+		} catch (IOException e) {
+			log.error("Cannot read input of upload session {}", session.getId());
+			throw new FileStorageException("Cannot read input of upload session %s".formatted(session.getId()), e);
+		}
+		return importStream(session.openInput(), session.getFileName(), options, job);
+	}
+
+	@Override
+	public Optional<UploadSessionDto> getUploadSession(String sessionId) {
+		return uploadSessionManager.find(sessionId).map(UploadSession::toDto);
+	}
+
+	@Override
+	public UploadSessionDto putUploadChunk(String sessionId, int chunkNumber, long offset, long length,
+			InputStream input) {
+		UploadSession session = findUploadSession(sessionId);
+		session.writeChunk(chunkNumber, offset, length, input);
+		return session.toDto();
+	}
+
+	@Override
+	public UploadJobDto commitUploadSession(String sessionId) {
+		UploadSession session = findUploadSession(sessionId);
+		session.commit();
+		return session.getJob().toDto();
+	}
+
+	@Override
+	public void abortUploadSession(String sessionId) {
+		uploadSessionManager.abort(sessionId, "aborted by client").orElseThrow(() -> sessionNotFound(sessionId));
+	}
+
+	private UploadSession findUploadSession(String sessionId) {
+		return uploadSessionManager.find(sessionId).orElseThrow(() -> sessionNotFound(sessionId));
+	}
+
+	private EntityNotFoundException sessionNotFound(String sessionId) {
+		log.error("Upload session {} not found", sessionId);
+		return new EntityNotFoundException("Upload session %s not found".formatted(sessionId));
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public UploadResponse saveAll(List<PersonDto> persons, UploadOptions options) {
+		UploadReport report = new UploadReport(ingestionProperties.getMaxReportedFailures());
+		List<Person> validEntities = new ArrayList<>(persons.size());
+		long record = 0;
+		for (PersonDto person : persons) {
+			Person entity = personMapper.toEntity(person);
+			entity.setRecord(++record);
+			Set<ConstraintViolation<Person>> violations = validator.validate(entity);
+			if (violations.isEmpty()) {
+				validEntities.add(entity);
+			} else {
+				report.rejected(null, record, Utilities.getViolations(violations));
+			}
+		}
+		UploadResponse uploadResponse = report.complete(getPersonWriter(options).write(validEntities.iterator(),
+				getOnConflict(options), WriteProgress.NONE));
+		invalidateCounts();
+		notificationService.notify("%d persons".formatted(uploadResponse.succeededEntries()), "saved");
+		return uploadResponse;
+	}
+
+	private void invalidateCounts() {
+		personCounters.forEach(PersonCounter::invalidate);
+	}
+
+	private PersonWriter getPersonWriter(UploadOptions options) {
+		WriteMode writeMode = options.writeMode() == null ? ingestionProperties.getWriteMode() : options.writeMode();
+		return personWriters.stream().filter(writer -> writer.getWriteMode() == writeMode).findFirst().orElseThrow();
+	}
+
+	private OnConflict getOnConflict(UploadOptions options) {
+		return options.onConflict() == null ? ingestionProperties.getOnConflict() : options.onConflict();
+	}
+
+	@Override
+	public ParserSchedulerStatus getParserSchedulerStatus() {
+		return parserScheduler.getStatus();
 	}
 
 }
@@ -0,0 +1,45 @@
+package com.streamlined.restapp.service.person;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.exception.IncorrectDataException;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class encodes position after last person of listed page into opaque cursor
+ * and back. Person list is ordered by primary key, so position is id of last
+ * listed person and next page is read by index range scan starting after it
+ * instead of skipping rows of previous pages.
+ */
+
+@UtilityClass
+@Slf4j
+class PersonListCursor {
+
+	private static final String KEY_PROPERTY = "id";
+
+	String encode(Long id) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	Specification<Person> after(String cursor) {
+		long id = decode(cursor);
+		return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get(KEY_PROPERTY), id);
+	}
+
+	private long decode(String cursor) {
+		try {
+			return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+		} catch (IllegalArgumentException e) {
+			log.error("Invalid person list cursor {}", cursor);
+			throw new IncorrectDataException("Invalid person list cursor %s".formatted(cursor));
+		}
+	}
+
+}
@@ -1,19 +1,26 @@
 package com.streamlined.restapp.service.person;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 import org.springframework.web.multipart.MultipartFile;
 
 import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.ParserSchedulerStatus;
+import com.streamlined.restapp.dto.PersonFilter;
 import com.streamlined.restapp.dto.PersonDto;
 import com.streamlined.restapp.dto.PersonListDto;
 import com.streamlined.restapp.dto.ReportDto;
+import com.streamlined.restapp.dto.UploadJobDto;
+import com.streamlined.restapp.dto.UploadOptions;
 import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.dto.UploadSessionDto;
 
 public interface PersonService {
 
-	Stream<PersonDto> getAllPersons();
+	void forEachPerson(Consumer<PersonDto> consumer);
 
 	Optional<PersonDto> getPersonById(Long id);
 
@@ -25,10 +32,29 @@ public interface PersonService {
 
 	void removeAllPersons();
 
-	ReportDto getFilteredPersonsAsFileResource(Person personPerson);
+	ReportDto getFilteredPersonsAsFileResource(Person personPerson, PersonFilter filter);
 
-	PersonListDto getPersonList(int page, int size, Person probe);
+	PersonListDto getPersonList(int page, int size, String after, TotalMode totalMode, Person probe,
+			PersonFilter filter);
 
-	UploadResponse uploadFile(MultipartFile multipartFile);
+	UploadJobDto uploadFile(MultipartFile multipartFile, UploadOptions options);
+
+	UploadJobDto uploadStream(InputStream input, String fileName, UploadOptions options);
+
+	Optional<UploadJobDto> getUploadJob(String jobId);
+
+	UploadSessionDto createUploadSession(String fileName, Long size, UploadOptions options);
+
+	Optional<UploadSessionDto> getUploadSession(String sessionId);
+
+	UploadSessionDto putUploadChunk(String sessionId, int chunkNumber, long offset, long length, InputStream input);
+
+	UploadJobDto commitUploadSession(String sessionId);
+
+	void abortUploadSession(String sessionId);
+
+	UploadResponse saveAll(List<PersonDto> persons, UploadOptions options);
+
+	ParserSchedulerStatus getParserSchedulerStatus();
 
 }
@@ -0,0 +1,179 @@
+package com.streamlined.restapp.service.person;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.streamlined.restapp.data.Country;
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.PersonFilter;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Class builds specification of persons from probe of equal values and filter
+ * of ranges, lists and prefixes. Every condition compares bare column with
+ * value, so it can be answered by index on column: name and birthday by
+ * person_name_birthday, sex, citizenship and country of origin by
+ * person_sex_citizenship_origin. Name prefix is turned into range of names
+ * starting with it, pattern only removes names the range takes in because of
+ * collation. Country probe with id is compared with foreign key, other country
+ * fields are compared with joined country.
+ */
+
+@UtilityClass
+class PersonSpecifications {
+
+	Specification<Person> matching(Person probe, PersonFilter filter) {
+		return (root, query, criteriaBuilder) -> {
+			List<Predicate> predicates = new ArrayList<>();
+			if (probe != null) {
+				addProbe(predicates, root, criteriaBuilder, probe);
+			}
+			if (filter != null) {
+				addFilter(predicates, root, criteriaBuilder, filter);
+			}
+			return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+		};
+	}
+
+	/**
+	 * Method returns key which is equal for probes and filters selecting the same
+	 * persons: absent values and empty lists are the same, lists are compared as
+	 * sets and numbers regardless of their scale
+	 *
+	 * @param probe  probe of equal values or null
+	 * @param filter filter of ranges, lists and prefixes or null
+	 * @return key of selected persons
+	 */
+	Object getKey(Person probe, PersonFilter filter) {
+		Person probeValues = probe == null ? new Person() : probe;
+		PersonFilter filterValues = filter == null
+				? new PersonFilter(null, null, null, null, null, null, null, null, null, null, null, null)
+				: filter;
+		return Arrays.asList(probeValues.getName(), probeValues.getBirthday(), probeValues.getSex(),
+				probeValues.getEyeColor(), probeValues.getHairColor(), normalize(probeValues.getWeight()),
+				normalize(probeValues.getHeight()), probeValues.getFavoriteMeals(),
+				getCountryKey(probeValues.getCountryOfOrigin()), getCountryKey(probeValues.getCitizenship()),
+				filterValues.namePrefix() == null || filterValues.namePrefix().isEmpty() ? null
+						: filterValues.namePrefix(),
+				filterValues.birthdayFrom(), filterValues.birthdayTo(), normalize(filterValues.sexes()),
+				normalize(filterValues.eyeColors()), normalize(filterValues.hairColors()),
+				normalize(filterValues.weightFrom()), normalize(filterValues.weightTo()),
+				normalize(filterValues.heightFrom()), normalize(filterValues.heightTo()),
+				normalize(filterValues.countryOfOriginIds()), normalize(filterValues.citizenshipIds()));
+	}
+
+	private List<Object> getCountryKey(Country country) {
+		return country == null ? null : Arrays.asList(country.getId(), country.getName(), country.getCapital());
+	}
+
+	private BigDecimal normalize(BigDecimal value) {
+		return value == null ? null : value.stripTrailingZeros();
+	}
+
+	private <T> Set<T> normalize(Collection<T> values) {
+		return values == null || values.isEmpty() ? null : new TreeSet<>(values);
+	}
+
+	private void addProbe(List<Predicate> predicates, Root<Person> root, CriteriaBuilder criteriaBuilder,
+			Person probe) {
+		addEqual(predicates, criteriaBuilder, root.get("name"), probe.getName());
+		addEqual(predicates, criteriaBuilder, root.get("birthday"), probe.getBirthday());
+		addEqual(predicates, criteriaBuilder, root.get("sex"), probe.getSex());
+		addEqual(predicates, criteriaBuilder, root.get("eyeColor"), probe.getEyeColor());
+		addEqual(predicates, criteriaBuilder, root.get("hairColor"), probe.getHairColor());
+		addEqual(predicates, criteriaBuilder, root.get("weight"), probe.getWeight());
+		addEqual(predicates, criteriaBuilder, root.get("height"), probe.getHeight());
+		addEqual(predicates, criteriaBuilder, root.get("favoriteMeals"), probe.getFavoriteMeals());
+		addCountry(predicates, root, criteriaBuilder, "countryOfOrigin", probe.getCountryOfOrigin());
+		addCountry(predicates, root, criteriaBuilder, "citizenship", probe.getCitizenship());
+	}
+
+	private void addCountry(List<Predicate> predicates, Root<Person> root, CriteriaBuilder criteriaBuilder,
+			String attribute, Country country) {
+		if (country == null) {
+			return;
+		}
+		addEqual(predicates, criteriaBuilder, root.get(attribute).get("id"), country.getId());
+		if (country.getName() != null || country.getCapital() != null) {
+			Path<Country> join = root.join(attribute);
+			addEqual(predicates, criteriaBuilder, join.get("name"), country.getName());
+			addEqual(predicates, criteriaBuilder, join.get("capital"), country.getCapital());
+		}
+	}
+
+	private void addFilter(List<Predicate> predicates, Root<Person> root, CriteriaBuilder criteriaBuilder,
+			PersonFilter filter) {
+		addPrefix(predicates, criteriaBuilder, root.get("name"), filter.namePrefix());
+		addRange(predicates, criteriaBuilder, root.get("birthday"), filter.birthdayFrom(), filter.birthdayTo());
+		addIn(predicates, root.get("sex"), filter.sexes());
+		addIn(predicates, root.get("eyeColor"), filter.eyeColors());
+		addIn(predicates, root.get("hairColor"), filter.hairColors());
+		addRange(predicates, criteriaBuilder, root.get("weight"), filter.weightFrom(), filter.weightTo());
+		addRange(predicates, criteriaBuilder, root.get("height"), filter.heightFrom(), filter.heightTo());
+		addIn(predicates, root.get("countryOfOrigin").get("id"), filter.countryOfOriginIds());
+		addIn(predicates, root.get("citizenship").get("id"), filter.citizenshipIds());
+	}
+
+	private void addEqual(List<Predicate> predicates, CriteriaBuilder criteriaBuilder, Expression<?> expression,
+			Object value) {
+		if (value != null) {
+			predicates.add(criteriaBuilder.equal(expression, value));
+		}
+	}
+
+	private <T extends Comparable<? super T>> void addRange(List<Predicate> predicates,
+			CriteriaBuilder criteriaBuilder, Expression<T> expression, T from, T to) {
+		if (from != null) {
+			predicates.add(criteriaBuilder.greaterThanOrEqualTo(expression, from));
+		}
+		if (to != null) {
+			predicates.add(criteriaBuilder.lessThanOrEqualTo(expression, to));
+		}
+	}
+
+	private void addIn(List<Predicate> predicates, Expression<?> expression, Collection<?> values) {
+		if (values != null && !values.isEmpty()) {
+			predicates.add(expression.in(values));
+		}
+	}
+
+	private void addPrefix(List<Predicate> predicates, CriteriaBuilder criteriaBuilder, Expression<String> expression,
+			String prefix) {
+		if (prefix == null || prefix.isEmpty()) {
+			return;
+		}
+		predicates.add(criteriaBuilder.greaterThanOrEqualTo(expression, prefix));
+		char last = prefix.charAt(prefix.length() - 1);
+		if (isIncrementable(last)) {
+			predicates.add(criteriaBuilder.lessThan(expression, prefix.substring(0, prefix.length() - 1) + (char) (last + 1)));
+		}
+		predicates.add(criteriaBuilder.like(expression, escapePattern(prefix) + "%", '\\'));
+	}
+
+	/**
+	 * Method tells if character is ASCII letter or digit followed by character of
+	 * the same kind, so every name with prefix ending with it sorts before
+	 * prefix ending with next character in any collation
+	 */
+	private boolean isIncrementable(char c) {
+		return (c >= 'a' && c < 'z') || (c >= 'A' && c < 'Z') || (c >= '0' && c < '9');
+	}
+
+	private String escapePattern(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.streamlined.restapp.service.person;
+
+/**
+ * Way total number of pages of person list is computed
+ */
+
+public enum TotalMode {
+
+	/**
+	 * Persons matching probe are counted by separate query
+	 */
+	EXACT,
+
+	/**
+	 * Number of persons matching probe is estimated by query planner, no
+	 * persons are counted
+	 */
+	ESTIMATED,
+
+	/**
+	 * Persons matching probe are counted by separate query, count is kept for
+	 * the same probe until persons are written or count expires
+	 */
+	CACHED,
+
+	/**
+	 * Total is not computed, client follows cursor of next page until there is
+	 * none
+	 */
+	NONE
+
+}
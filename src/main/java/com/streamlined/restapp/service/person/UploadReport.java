@@ -0,0 +1,55 @@
+package com.streamlined.restapp.service.person;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.streamlined.restapp.dto.UploadFailure;
+import com.streamlined.restapp.dto.UploadResponse;
+
+/**
+ * Class collects records rejected before writing and combines them with
+ * failures of writer into report of upload. Both are reported by source and
+ * number of record in it, so numbers do not depend on order entities were
+ * delivered in and only failures to be reported are kept. Class is used by
+ * single thread consuming parsed entities.
+ */
+
+class UploadReport {
+
+	private static final Comparator<UploadFailure> FAILURE_ORDER = Comparator
+			.comparing(UploadFailure::source, Comparator.nullsFirst(Comparator.naturalOrder()))
+			.thenComparingLong(UploadFailure::row);
+
+	private final int maxReportedFailures;
+	private final List<UploadFailure> rejectedFailures;
+	private long rejectedCount;
+
+	UploadReport(int maxReportedFailures) {
+		this.maxReportedFailures = maxReportedFailures;
+		rejectedFailures = new ArrayList<>();
+	}
+
+	void rejected(String source, long record, String reason) {
+		rejectedCount++;
+		if (rejectedFailures.size() < maxReportedFailures) {
+			rejectedFailures.add(new UploadFailure(source, record, reason));
+		}
+	}
+
+	/**
+	 * Method adds rejected records to response of writer
+	 *
+	 * @param writeResponse response of writer
+	 * @return response of upload with failures ordered by source and number of
+	 *         record
+	 */
+	UploadResponse complete(UploadResponse writeResponse) {
+		List<UploadFailure> failures = Stream.concat(rejectedFailures.stream(), writeResponse.failures().stream())
+				.sorted(FAILURE_ORDER).limit(maxReportedFailures).toList();
+		return new UploadResponse(writeResponse.succeededEntries(),
+				(int) (writeResponse.failedEntries() + rejectedCount), failures);
+	}
+
+}
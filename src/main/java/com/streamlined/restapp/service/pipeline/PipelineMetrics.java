@@ -0,0 +1,47 @@
+package com.streamlined.restapp.service.pipeline;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.streamlined.restapp.dto.StageMetricsDto;
+
+/**
+ * Class keeps metrics of every stage of ingestion pipeline of single upload.
+ * Stage whose busy threads approach its parallelism while queue feeding it is
+ * full is bottleneck of upload.
+ */
+
+public class PipelineMetrics {
+
+	/**
+	 * Metrics which are collected but never reported
+	 */
+	public static final PipelineMetrics NONE = new PipelineMetrics();
+
+	private final Map<Stage, StageMetrics> stages;
+
+	public PipelineMetrics() {
+		stages = new EnumMap<>(Stage.class);
+		for (Stage stage : Stage.values()) {
+			stages.put(stage, new StageMetrics());
+		}
+	}
+
+	public StageMetrics stage(Stage stage) {
+		return stages.get(stage);
+	}
+
+	/**
+	 * Method creates snapshot of metrics of all stages
+	 *
+	 * @param elapsedNanos time since pipeline started
+	 * @return metrics of stages in pipeline order
+	 */
+	public Map<Stage, StageMetricsDto> toDto(long elapsedNanos) {
+		Map<Stage, StageMetricsDto> snapshot = new EnumMap<>(Stage.class);
+		stages.forEach((stage, metrics) -> snapshot.put(stage, metrics.toDto(elapsedNanos)));
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.streamlined.restapp.service.pipeline;
+
+/**
+ * Stage of ingestion pipeline, entities pass stages in order of declaration
+ */
+
+public enum Stage {
+
+	/**
+	 * Upload is read and cut into chunks of records, items are bytes read
+	 */
+	READ,
+
+	/**
+	 * Chunks are parsed into entities, time includes country resolution
+	 */
+	PARSE,
+
+	/**
+	 * Country objects of entities are read and resolved to shared catalog
+	 * instances
+	 */
+	RESOLVE,
+
+	/**
+	 * Entities are checked by bean validation
+	 */
+	VALIDATE,
+
+	/**
+	 * Parsed entities are collected into chunks for writer, time is spent waiting
+	 * for entities of previous stages
+	 */
+	BATCH,
+
+	/**
+	 * Chunks of entities are written to database
+	 */
+	WRITE
+
+}
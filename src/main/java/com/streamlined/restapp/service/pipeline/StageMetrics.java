@@ -0,0 +1,89 @@
+package com.streamlined.restapp.service.pipeline;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import com.streamlined.restapp.dto.StageMetricsDto;
+
+/**
+ * Class accumulates number of items processed by stage, time spent on them by
+ * all threads of stage and CPU time of stage if it is measured, and observes
+ * queue feeding stage. Counters are updated concurrently by threads of stage.
+ */
+
+public class StageMetrics {
+
+	private final LongAdder items;
+	private final LongAdder busyNanos;
+	private final LongAdder cpuNanos;
+	private volatile int parallelism;
+	private volatile IntSupplier queueSize;
+	private volatile int queueCapacity;
+
+	StageMetrics() {
+		items = new LongAdder();
+		busyNanos = new LongAdder();
+		cpuNanos = new LongAdder();
+		parallelism = 1;
+	}
+
+	/**
+	 * Method adds processed items and time spent on them
+	 *
+	 * @param count number of items
+	 * @param nanos time spent in nanoseconds
+	 */
+	public void record(long count, long nanos) {
+		items.add(count);
+		busyNanos.add(nanos);
+	}
+
+	/**
+	 * Method adds CPU time consumed by thread of stage, so waiting for previous
+	 * stages is told apart from spinning
+	 *
+	 * @param nanos CPU time in nanoseconds
+	 */
+	public void recordCpuTime(long nanos) {
+		cpuNanos.add(nanos);
+	}
+
+	public long getBusyNanos() {
+		return busyNanos.sum();
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Method sets queue feeding stage
+	 *
+	 * @param size     supplier of current number of queued elements
+	 * @param capacity maximum number of queued elements
+	 */
+	public void observeQueue(IntSupplier size, int capacity) {
+		queueCapacity = capacity;
+		queueSize = size;
+	}
+
+	/**
+	 * Method creates snapshot of metrics, throughput and number of busy threads are
+	 * averaged over given time
+	 *
+	 * @param elapsedNanos time since pipeline started
+	 * @return snapshot of metrics
+	 */
+	StageMetricsDto toDto(long elapsedNanos) {
+		long itemCount = items.sum();
+		long busy = busyNanos.sum();
+		long cpu = cpuNanos.sum();
+		IntSupplier size = queueSize;
+		return new StageMetricsDto(parallelism, itemCount,
+				elapsedNanos > 0 ? itemCount * 1e9 / elapsedNanos : 0,
+				itemCount > 0 ? busy / 1e3 / itemCount : 0, itemCount > 0 ? cpu / 1e3 / itemCount : 0,
+				elapsedNanos > 0 ? (double) busy / elapsedNanos : 0,
+				size == null ? null : size.getAsInt(), size == null ? null : queueCapacity);
+	}
+
+}
@@ -14,13 +14,13 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
-import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.ReportedPersonDto;
 import com.streamlined.restapp.exception.ReportException;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Class creates CSV report file and fills it with received person entities
+ * Class creates CSV report file and fills it with received persons
  */
 
 @Component
@@ -35,15 +35,15 @@ public class CSVReporter implements Reporter {
 	private static final String FIELD_SEPARATOR = ";";
 
 	/**
-	 * Method accepts stream of person entities and saves data as temporary file in
+	 * Method accepts stream of persons and saves data as temporary file in
 	 * CSV format
 	 * 
-	 * @param personStream stream of person entities
+	 * @param personStream stream of persons
 	 * @return created file in CSV format
 	 * @throws ReportException if file cannot be created or filled in
 	 */
 	@Override
-	public FileSystemResource getFileResource(Stream<Person> personStream) {
+	public FileSystemResource getFileResource(Stream<ReportedPersonDto> personStream) {
 		try {
 			Path file = Files.createTempFile(WORKBOOK_FILE_PREFIX, WORKBOOK_FILE_SUFFIX);
 			fillInWorkbookFile(file, personStream);
@@ -54,18 +54,18 @@ public class CSVReporter implements Reporter {
 		}
 	}
 
-	private void fillInWorkbookFile(Path file, Stream<Person> personStream) throws IOException {
+	private void fillInWorkbookFile(Path file, Stream<ReportedPersonDto> personStream) throws IOException {
 		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardOpenOption.WRITE,
 				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE)) {
 			StringBuilder builder = new StringBuilder();
-			for (Iterator<Person> i = personStream.iterator(); i.hasNext();) {
-				Person person = i.next();
+			for (Iterator<ReportedPersonDto> i = personStream.iterator(); i.hasNext();) {
+				ReportedPersonDto person = i.next();
 				builder.setLength(0);
-				builder.append(person.getName()).append(FIELD_SEPARATOR);
-				builder.append(person.getBirthday().format(DateTimeFormatter.ISO_DATE)).append(FIELD_SEPARATOR);
-				builder.append(person.getSex().toString()).append(FIELD_SEPARATOR);
-				builder.append(person.getEyeColor().toString()).append(FIELD_SEPARATOR);
-				builder.append(person.getHeight());
+				builder.append(person.name()).append(FIELD_SEPARATOR);
+				builder.append(person.birthday().format(DateTimeFormatter.ISO_DATE)).append(FIELD_SEPARATOR);
+				builder.append(person.sex().toString()).append(FIELD_SEPARATOR);
+				builder.append(person.eyeColor().toString()).append(FIELD_SEPARATOR);
+				builder.append(person.height());
 				writer.write(builder.toString());
 				writer.newLine();
 			}
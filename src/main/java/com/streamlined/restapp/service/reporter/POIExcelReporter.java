@@ -21,7 +21,7 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
-import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.ReportedPersonDto;
 import com.streamlined.restapp.exception.ReportException;
 
 import lombok.extern.slf4j.Slf4j;
@@ -37,7 +37,7 @@ public class POIExcelReporter implements Reporter {
 	private static final String RESULT_FILE_NAME = "workbook.xls";
 
 	@Override
-	public FileSystemResource getFileResource(Stream<Person> personStream) {
+	public FileSystemResource getFileResource(Stream<ReportedPersonDto> personStream) {
 		try (Workbook workbook = new HSSFWorkbook()) {
 			return new FileSystemResource(createWorkbookFile(workbook, personStream));
 		} catch (IOException e) {
@@ -46,7 +46,7 @@ public class POIExcelReporter implements Reporter {
 		}
 	}
 
-	private Path createWorkbookFile(Workbook workbook, Stream<Person> personStream) {
+	private Path createWorkbookFile(Workbook workbook, Stream<ReportedPersonDto> personStream) {
 		try {
 			Path file = Files.createTempFile(WORKBOOK_FILE_PREFIX, WORKBOOK_FILE_SUFFIX);
 			Sheet sheet = workbook.createSheet();
@@ -104,36 +104,36 @@ public class POIExcelReporter implements Reporter {
 		heightCell.setCellStyle(headerStyle);
 	}
 
-	private void createBody(Workbook workbook, Sheet sheet, Stream<Person> personStream) {
+	private void createBody(Workbook workbook, Sheet sheet, Stream<ReportedPersonDto> personStream) {
 		CellStyle style = workbook.createCellStyle();
 		style.setWrapText(true);
 		int index = 2;
-		for (Iterator<Person> i = personStream.iterator(); i.hasNext(); index++) {
+		for (Iterator<ReportedPersonDto> i = personStream.iterator(); i.hasNext(); index++) {
 			createSheetRow(sheet, style, i.next(), index);
 		}
 	}
 
-	private void createSheetRow(Sheet sheet, CellStyle style, Person person, int index) {
+	private void createSheetRow(Sheet sheet, CellStyle style, ReportedPersonDto person, int index) {
 		Row row = sheet.createRow(index);
 
 		Cell nameCell = row.createCell(0);
-		nameCell.setCellValue(person.getName());
+		nameCell.setCellValue(person.name());
 		nameCell.setCellStyle(style);
 
 		Cell birthdayCell = row.createCell(1);
-		birthdayCell.setCellValue(person.getBirthday());
+		birthdayCell.setCellValue(person.birthday());
 		birthdayCell.setCellStyle(style);
 
 		Cell sexCell = row.createCell(2);
-		sexCell.setCellValue(person.getSex().toString());
+		sexCell.setCellValue(person.sex().toString());
 		sexCell.setCellStyle(style);
 
 		Cell eyeColorCell = row.createCell(3);
-		eyeColorCell.setCellValue(person.getEyeColor().toString());
+		eyeColorCell.setCellValue(person.eyeColor().toString());
 		eyeColorCell.setCellStyle(style);
 
 		Cell heightCell = row.createCell(4);
-		heightCell.setCellValue(person.getHeight().doubleValue());
+		heightCell.setCellValue(person.height().doubleValue());
 		heightCell.setCellStyle(style);
 	}
 
@@ -5,11 +5,11 @@ import java.util.stream.Stream;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
 
-import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.ReportedPersonDto;
 
 public interface Reporter {
 
-	FileSystemResource getFileResource(Stream<Person> personStream);
+	FileSystemResource getFileResource(Stream<ReportedPersonDto> personStream);
 	
 	MediaType getMediaType();
 	
@@ -0,0 +1,102 @@
+package com.streamlined.restapp.service.upload;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.streamlined.restapp.dao.PersonImportRepository;
+import com.streamlined.restapp.data.PersonImport;
+import com.streamlined.restapp.data.PersonImportId;
+import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.service.writer.OnConflict;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class makes uploads of the same content idempotent. Upload is identified by
+ * hash of its content and handling of conflicting persons. Completed import is
+ * recorded, so repeated upload returns finished job with recorded response
+ * without importing it again, and upload sent while the same upload is running
+ * returns running job. Running upload is removed from registry after its
+ * import is recorded, so repeated upload finds either of them.
+ */
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImportRegistry {
+
+	private final UploadJobManager uploadJobManager;
+	private final PersonImportRepository personImportRepository;
+	private final Map<PersonImportId, UploadJob> runningJobs = new HashMap<>();
+
+	/**
+	 * Method queues upload task unless the same upload is running or completed
+	 *
+	 * @param contentHash hash of upload content
+	 * @param onConflict  handling of persons which already exist
+	 * @param totalBytes  size of upload input
+	 * @param task        upload task which reports progress to given job
+	 * @param onFinish    action run after task, or at once if upload is repeated
+	 * @return job of queued, running or completed upload
+	 */
+	public synchronized UploadJob submit(String contentHash, OnConflict onConflict, long totalBytes,
+			Function<UploadJob, UploadResponse> task, Runnable onFinish) {
+		PersonImportId id = new PersonImportId(contentHash, onConflict.name());
+		UploadJob runningJob = runningJobs.get(id);
+		if (runningJob != null) {
+			log.info("Upload {} is running as job {}", id, runningJob.getId());
+			onFinish.run();
+			return runningJob;
+		}
+		UploadResponse recordedResponse = personImportRepository.findById(id).map(this::toResponse).orElse(null);
+		if (recordedResponse != null) {
+			log.info("Upload {} is already imported", id);
+			onFinish.run();
+			return uploadJobManager.completed(recordedResponse);
+		}
+		UploadJob job = uploadJobManager.submit(totalBytes, uploadJob -> {
+			try {
+				UploadResponse response = task.apply(uploadJob);
+				record(id, response);
+				return response;
+			} finally {
+				remove(id);
+			}
+		}, onFinish);
+		runningJobs.put(id, job);
+		return job;
+	}
+
+	private synchronized void remove(PersonImportId id) {
+		runningJobs.remove(id);
+	}
+
+	private void record(PersonImportId id, UploadResponse response) {
+		try {
+			personImportRepository.save(PersonImport.builder().contentHash(id.getContentHash())
+					.onConflict(id.getOnConflict()).succeededEntries(response.succeededEntries())
+					.failedEntries(response.failedEntries()).failures(response.failures()).importedAt(Instant.now())
+					.build());
+		} catch (RuntimeException e) {
+			log.warn("Cannot record import of upload {}", id, e);
+		}
+	}
+
+	private UploadResponse toResponse(PersonImport personImport) {
+		return new UploadResponse(personImport.getSucceededEntries(), personImport.getFailedEntries(),
+				personImport.getFailures());
+	}
+
+	/**
+	 * Method forgets recorded imports, so the same content may be imported again
+	 */
+	public void clear() {
+		personImportRepository.deleteAll();
+	}
+
+}
@@ -0,0 +1,171 @@
+package com.streamlined.restapp.service.upload;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.streamlined.restapp.dto.UploadJobDto;
+import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.service.pipeline.PipelineMetrics;
+import com.streamlined.restapp.service.pipeline.Stage;
+import com.streamlined.restapp.service.pipeline.StageMetrics;
+import com.streamlined.restapp.service.writer.WriteProgress;
+
+import lombok.Getter;
+
+/**
+ * Class keeps state and progress of asynchronous upload. Progress counters are
+ * updated by thread running upload and read by threads polling job state.
+ * Remaining time is estimated from number of input bytes consumed by parser
+ * if size of upload is known. Job keeps metrics of every stage of ingestion
+ * pipeline of upload. Job may be shared by clients which sent the same upload.
+ */
+
+public class UploadJob implements WriteProgress {
+
+	@Getter
+	private final String id;
+	private final long totalBytes;
+	private final AtomicLong consumedBytes;
+	private final AtomicLong parsedEntries;
+	private final AtomicLong savedEntries;
+	private final AtomicLong failedEntries;
+	private final PipelineMetrics metrics;
+	private final StageMetrics readMetrics;
+	private volatile long startNanos;
+	private volatile long finishNanos;
+	private volatile UploadJobState state;
+	private volatile Instant startTime;
+	private volatile Instant finishTime;
+	private volatile UploadResponse result;
+	private volatile String error;
+
+	UploadJob(String id, long totalBytes) {
+		this.id = id;
+		this.totalBytes = totalBytes;
+		consumedBytes = new AtomicLong();
+		parsedEntries = new AtomicLong();
+		savedEntries = new AtomicLong();
+		failedEntries = new AtomicLong();
+		metrics = new PipelineMetrics();
+		readMetrics = metrics.stage(Stage.READ);
+		state = UploadJobState.QUEUED;
+	}
+
+	/**
+	 * Method wraps input of upload, so number of bytes read from it is counted to
+	 * estimate remaining time and time of reading is recorded to read stage
+	 *
+	 * @param input input of upload
+	 * @return counting input stream
+	 */
+	public InputStream track(InputStream input) {
+		return new FilterInputStream(input) {
+
+			@Override
+			public int read() throws IOException {
+				long startTime = System.nanoTime();
+				int b = super.read();
+				if (b != -1) {
+					consumedBytes.incrementAndGet();
+					readMetrics.record(1, System.nanoTime() - startTime);
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] buffer, int offset, int length) throws IOException {
+				long startTime = System.nanoTime();
+				int count = super.read(buffer, offset, length);
+				if (count > 0) {
+					consumedBytes.addAndGet(count);
+					readMetrics.record(count, System.nanoTime() - startTime);
+				}
+				return count;
+			}
+
+		};
+	}
+
+	public void parsed() {
+		parsedEntries.incrementAndGet();
+	}
+
+	public void rejected() {
+		parsedEntries.incrementAndGet();
+		failedEntries.incrementAndGet();
+	}
+
+	@Override
+	public void saved(int count) {
+		savedEntries.addAndGet(count);
+	}
+
+	@Override
+	public void failed(int count) {
+		failedEntries.addAndGet(count);
+	}
+
+	@Override
+	public PipelineMetrics getMetrics() {
+		return metrics;
+	}
+
+	void start() {
+		startNanos = System.nanoTime();
+		startTime = Instant.now();
+		state = UploadJobState.RUNNING;
+	}
+
+	void complete(UploadResponse response) {
+		result = response;
+		finishNanos = System.nanoTime();
+		finishTime = Instant.now();
+		state = UploadJobState.COMPLETED;
+	}
+
+	void fail(String message) {
+		error = message;
+		finishNanos = System.nanoTime();
+		finishTime = Instant.now();
+		state = UploadJobState.FAILED;
+	}
+
+	boolean isFinishedBefore(Instant time) {
+		Instant finished = finishTime;
+		return finished != null && finished.isBefore(time);
+	}
+
+	public UploadJobDto toDto() {
+		Instant started = startTime;
+		Instant finished = finishTime;
+		double entriesPerSecond = 0;
+		Long remainingSeconds = null;
+		if (started != null) {
+			Duration elapsed = Duration.between(started, finished == null ? Instant.now() : finished);
+			double elapsedSeconds = elapsed.toMillis() / 1000.0;
+			if (elapsedSeconds > 0) {
+				entriesPerSecond = parsedEntries.get() / elapsedSeconds;
+			}
+			long consumed = consumedBytes.get();
+			if (finished != null) {
+				remainingSeconds = 0L;
+			} else if (consumed > 0 && totalBytes > 0) {
+				remainingSeconds = (long) (elapsedSeconds * Math.max(totalBytes - consumed, 0) / consumed);
+			}
+		}
+		return new UploadJobDto(id, state, parsedEntries.get(), savedEntries.get(), failedEntries.get(),
+				entriesPerSecond, remainingSeconds, result, error, metrics.toDto(getElapsedNanos()));
+	}
+
+	private long getElapsedNanos() {
+		if (startTime == null) {
+			return 0;
+		}
+		return (finishTime == null ? System.nanoTime() : finishNanos) - startNanos;
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.streamlined.restapp.service.upload;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.streamlined.restapp.config.IngestionProperties;
+import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.exception.UploadRejectedException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class runs uploads on bounded pool of job threads and keeps their state for
+ * configured retention period after they finish, so job may be read any number
+ * of times by every client sharing it. Jobs of upload sessions wait for chunks
+ * sent by client and run on separate pool, so slow sessions never hold threads
+ * of uploads whose input is already stored. Uploads exceeding capacity of job
+ * queue are rejected.
+ */
+
+@Component
+@Slf4j
+public class UploadJobManager {
+
+	private static final String JOB_THREAD_NAME_PREFIX = "upload-";
+	private static final String SESSION_JOB_THREAD_NAME_PREFIX = "upload-session-";
+
+	private final IngestionProperties properties;
+	private final ThreadPoolExecutor executor;
+	private final ThreadPoolExecutor sessionExecutor;
+	private final Map<String, UploadJob> jobs;
+
+	public UploadJobManager(IngestionProperties properties) {
+		this.properties = properties;
+		executor = createExecutor(properties.getJobs().getMaxConcurrent(), properties.getJobs().getQueueCapacity(),
+				JOB_THREAD_NAME_PREFIX);
+		sessionExecutor = createExecutor(properties.getSessions().getMaxConcurrent(),
+				properties.getSessions().getQueueCapacity(), SESSION_JOB_THREAD_NAME_PREFIX);
+		jobs = new ConcurrentHashMap<>();
+	}
+
+	private static ThreadPoolExecutor createExecutor(int maxConcurrentJobs, int queueCapacity,
+			String threadNamePrefix) {
+		AtomicInteger threadCount = new AtomicInteger();
+		return new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, threadNamePrefix + threadCount.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Method queues upload task for execution
+	 *
+	 * @param totalBytes size of upload input
+	 * @param task       upload task which reports progress to given job
+	 * @param onFinish   action run after task regardless of its outcome
+	 * @return job of queued upload
+	 * @throws UploadRejectedException if job queue is full
+	 */
+	public UploadJob submit(long totalBytes, Function<UploadJob, UploadResponse> task, Runnable onFinish) {
+		return submit(executor, totalBytes, task, onFinish);
+	}
+
+	/**
+	 * Method queues task of upload session, which reads chunks while they are
+	 * received, for execution on pool of session jobs
+	 *
+	 * @param totalBytes declared size of upload or 0 if it is unknown
+	 * @param task       upload task which reports progress to given job
+	 * @param onFinish   action run after task regardless of its outcome
+	 * @return job of queued upload
+	 * @throws UploadRejectedException if queue of session jobs is full
+	 */
+	public UploadJob submitSession(long totalBytes, Function<UploadJob, UploadResponse> task, Runnable onFinish) {
+		return submit(sessionExecutor, totalBytes, task, onFinish);
+	}
+
+	private UploadJob submit(ThreadPoolExecutor jobExecutor, long totalBytes,
+			Function<UploadJob, UploadResponse> task, Runnable onFinish) {
+		UploadJob job = new UploadJob(UUID.randomUUID().toString(), totalBytes);
+		jobs.put(job.getId(), job);
+		try {
+			jobExecutor.execute(() -> run(job, task, onFinish));
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.getId());
+			log.error("Upload queue is full");
+			throw new UploadRejectedException("Upload queue is full, try again later", e);
+		}
+		return job;
+	}
+
+	/**
+	 * Method registers job which is already finished with given response
+	 *
+	 * @param response response of upload
+	 * @return finished job
+	 */
+	public UploadJob completed(UploadResponse response) {
+		UploadJob job = new UploadJob(UUID.randomUUID().toString(), 0);
+		job.start();
+		job.complete(response);
+		jobs.put(job.getId(), job);
+		return job;
+	}
+
+	private void run(UploadJob job, Function<UploadJob, UploadResponse> task, Runnable onFinish) {
+		job.start();
+		try {
+			job.complete(task.apply(job));
+		} catch (RuntimeException e) {
+			log.error("Upload job {} failed", job.getId(), e);
+			job.fail(e.getMessage());
+		} finally {
+			onFinish.run();
+		}
+	}
+
+	/**
+	 * Method returns job by its id, finished job is kept until its retention
+	 * period expires
+	 *
+	 * @param id id of job
+	 * @return job if it is known
+	 */
+	public Optional<UploadJob> find(String id) {
+		return Optional.ofNullable(jobs.get(id));
+	}
+
+	@Scheduled(fixedDelayString = "${ingestion.jobs.cleanup-interval:PT1M}")
+	void removeExpiredJobs() {
+		Instant expirationTime = Instant.now().minus(properties.getJobs().getRetention());
+		jobs.values().removeIf(job -> job.isFinishedBefore(expirationTime));
+	}
+
+	@PreDestroy
+	void stop() {
+		executor.shutdownNow();
+		sessionExecutor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.streamlined.restapp.service.upload;
+
+public enum UploadJobState {
+	QUEUED, RUNNING, COMPLETED, FAILED
+}
@@ -0,0 +1,293 @@
+package com.streamlined.restapp.service.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.streamlined.restapp.dto.UploadChunkDto;
+import com.streamlined.restapp.dto.UploadSessionDto;
+import com.streamlined.restapp.exception.FileStorageException;
+import com.streamlined.restapp.exception.IncorrectDataException;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class keeps file of resumable upload which is received in numbered chunks.
+ * Chunks may arrive in any order and be sent again after dropped connection,
+ * chunk is stored straight at its offset of file. Input of session returns
+ * bytes as soon as they are received without gaps from start of file, so
+ * upload is parsed while it is being transferred, and ends after session is
+ * committed.
+ */
+
+@Slf4j
+public class UploadSession {
+
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	private record Chunk(int number, long offset, long length) {
+
+		long end() {
+			return offset + length;
+		}
+
+		boolean overlaps(long otherOffset, long otherLength) {
+			return offset < otherOffset + otherLength && otherOffset < end();
+		}
+
+	}
+
+	@Getter
+	private final String id;
+	@Getter
+	private final Path file;
+	@Getter
+	private final String fileName;
+	private final Long declaredSize;
+	private final FileChannel channel;
+	private final Map<Integer, Chunk> receivedChunks;
+	private final NavigableMap<Long, Chunk> receivedChunksByOffset;
+	private final Map<Integer, Chunk> pendingChunks;
+	private long receivedBytes;
+	private long contiguousBytes;
+	private boolean committed;
+	private String abortReason;
+	private volatile Instant lastAccessTime;
+	@Getter
+	private volatile UploadJob job;
+
+	UploadSession(String id, Path file, String fileName, Long declaredSize) throws IOException {
+		this.id = id;
+		this.file = file;
+		this.fileName = fileName;
+		this.declaredSize = declaredSize;
+		channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		receivedChunks = new HashMap<>();
+		receivedChunksByOffset = new TreeMap<>();
+		pendingChunks = new HashMap<>();
+		lastAccessTime = Instant.now();
+	}
+
+	public void setJob(UploadJob job) {
+		this.job = job;
+	}
+
+	/**
+	 * Method stores chunk at its offset of upload file. Chunk received before is
+	 * kept and its data is skipped, so chunk may be sent again safely.
+	 *
+	 * @param number number of chunk
+	 * @param offset position of chunk in upload
+	 * @param length number of bytes of chunk
+	 * @param input  data of chunk
+	 * @throws IncorrectDataException if session is closed or chunk overlaps other
+	 *                                chunk
+	 * @throws FileStorageException   if chunk cannot be read or stored
+	 */
+	public void writeChunk(int number, long offset, long length, InputStream input) {
+		Chunk chunk = new Chunk(number, offset, length);
+		if (!reserve(chunk)) {
+			return;
+		}
+		boolean stored = false;
+		try {
+			stored = copy(input, chunk) == length;
+			if (!stored) {
+				log.error("Chunk {} of upload session {} is shorter than {} bytes", number, id, length);
+				throw new IncorrectDataException(
+						"Chunk %d of upload session %s is shorter than %d bytes".formatted(number, id, length));
+			}
+		} catch (IOException e) {
+			log.error("Cannot store chunk {} of upload session {}", number, id);
+			throw new FileStorageException("Cannot store chunk %d of upload session %s".formatted(number, id), e);
+		} finally {
+			release(chunk, stored);
+		}
+	}
+
+	private synchronized boolean reserve(Chunk chunk) {
+		touch();
+		checkOpen();
+		if (chunk.offset() < 0 || chunk.length() <= 0) {
+			log.error("Chunk {} of upload session {} has invalid range", chunk.number(), id);
+			throw new IncorrectDataException(
+					"Chunk %d of upload session %s has invalid range".formatted(chunk.number(), id));
+		}
+		Chunk receivedChunk = receivedChunks.get(chunk.number());
+		if (receivedChunk != null && receivedChunk.equals(chunk)) {
+			return false;
+		}
+		Map.Entry<Long, Chunk> previousChunk = receivedChunksByOffset.floorEntry(chunk.offset());
+		Map.Entry<Long, Chunk> nextChunk = receivedChunksByOffset.ceilingEntry(chunk.offset());
+		boolean overlapping = (previousChunk != null
+				&& previousChunk.getValue().overlaps(chunk.offset(), chunk.length()))
+				|| (nextChunk != null && nextChunk.getValue().overlaps(chunk.offset(), chunk.length()))
+				|| pendingChunks.values().stream().anyMatch(other -> other.overlaps(chunk.offset(), chunk.length()));
+		if (overlapping || receivedChunk != null || pendingChunks.containsKey(chunk.number())) {
+			log.error("Chunk {} of upload session {} overlaps other chunk", chunk.number(), id);
+			throw new IncorrectDataException(
+					"Chunk %d of upload session %s overlaps other chunk".formatted(chunk.number(), id));
+		}
+		pendingChunks.put(chunk.number(), chunk);
+		return true;
+	}
+
+	private long copy(InputStream input, Chunk chunk) throws IOException {
+		byte[] buffer = new byte[COPY_BUFFER_SIZE];
+		long position = chunk.offset();
+		for (int count; position < chunk.end()
+				&& (count = input.read(buffer, 0, (int) Math.min(buffer.length, chunk.end() - position))) != -1;) {
+			ByteBuffer data = ByteBuffer.wrap(buffer, 0, count);
+			while (data.hasRemaining()) {
+				position += channel.write(data, position);
+			}
+		}
+		return position - chunk.offset();
+	}
+
+	private synchronized void release(Chunk chunk, boolean stored) {
+		pendingChunks.remove(chunk.number());
+		if (stored) {
+			receivedChunks.put(chunk.number(), chunk);
+			receivedChunksByOffset.put(chunk.offset(), chunk);
+			receivedBytes += chunk.length();
+			for (Chunk next; (next = receivedChunksByOffset.get(contiguousBytes)) != null;) {
+				contiguousBytes = next.end();
+			}
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Method marks end of upload, input of session ends after last received byte
+	 *
+	 * @throws IncorrectDataException if session is closed, chunk is still being
+	 *                                received, or received chunks leave gaps
+	 */
+	public synchronized void commit() {
+		touch();
+		checkOpen();
+		if (!pendingChunks.isEmpty() || receivedBytes != contiguousBytes
+				|| (declaredSize != null && declaredSize != contiguousBytes)) {
+			log.error("Upload session {} is incomplete", id);
+			throw new IncorrectDataException("Upload session %s is incomplete, %d bytes received without gaps"
+					.formatted(id, contiguousBytes));
+		}
+		committed = true;
+		notifyAll();
+	}
+
+	/**
+	 * Method closes session, input of session fails with given reason
+	 *
+	 * @param reason reason of abort
+	 */
+	synchronized void abort(String reason) {
+		if (abortReason == null) {
+			abortReason = reason;
+			notifyAll();
+		}
+	}
+
+	void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			log.warn("Cannot close file of upload session {}", id, e);
+		}
+	}
+
+	private void checkOpen() {
+		if (abortReason != null || committed) {
+			log.error("Upload session {} is closed", id);
+			throw new IncorrectDataException("Upload session %s is closed".formatted(id));
+		}
+	}
+
+	private void touch() {
+		lastAccessTime = Instant.now();
+	}
+
+	synchronized boolean isIdleSince(Instant time) {
+		return !committed && abortReason == null && lastAccessTime.isBefore(time);
+	}
+
+	/**
+	 * Method opens input which returns bytes of upload in order, blocking until
+	 * they are received
+	 *
+	 * @return input of upload
+	 */
+	public InputStream openInput() {
+		return new InputStream() {
+
+			private long position;
+
+			@Override
+			public int read() throws IOException {
+				byte[] b = new byte[1];
+				return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+			}
+
+			@Override
+			public int read(byte[] buffer, int offset, int length) throws IOException {
+				if (length == 0) {
+					return 0;
+				}
+				long available = awaitBytes(position);
+				if (available == 0) {
+					return -1;
+				}
+				int count = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, available)),
+						position);
+				position += count;
+				return count;
+			}
+
+		};
+	}
+
+	/**
+	 * Method blocks until first bytes of upload are received, or session is
+	 * committed, so parsing of upload is not started while client sends nothing
+	 *
+	 * @throws IOException if session is aborted or waiting is interrupted
+	 */
+	public void awaitStart() throws IOException {
+		awaitBytes(0);
+	}
+
+	private synchronized long awaitBytes(long position) throws IOException {
+		try {
+			while (contiguousBytes <= position && !committed && abortReason == null) {
+				wait();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Waiting for chunks of upload session %s interrupted".formatted(id));
+		}
+		if (abortReason != null) {
+			throw new IOException("Upload session %s aborted: %s".formatted(id, abortReason));
+		}
+		return contiguousBytes - position;
+	}
+
+	public synchronized UploadSessionDto toDto() {
+		return new UploadSessionDto(id, job == null ? null : job.getId(), contiguousBytes,
+				receivedChunksByOffset.values().stream()
+						.map(chunk -> new UploadChunkDto(chunk.number(), chunk.offset(), chunk.length())).toList(),
+				committed);
+	}
+
+}
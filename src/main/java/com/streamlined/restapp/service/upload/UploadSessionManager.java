@@ -0,0 +1,98 @@
+package com.streamlined.restapp.service.upload;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.streamlined.restapp.Utilities;
+import com.streamlined.restapp.config.IngestionProperties;
+import com.streamlined.restapp.exception.FileStorageException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class keeps open sessions of resumable uploads. Every session stores its
+ * file in new temporary folder. Session which receives no chunk for configured
+ * idle timeout before it is committed is aborted.
+ */
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionManager {
+
+	private final IngestionProperties properties;
+	private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+	/**
+	 * Method opens new session
+	 *
+	 * @param fileName     name of uploaded file or null
+	 * @param declaredSize size of uploaded file if it is known or null
+	 * @return new session
+	 */
+	public UploadSession open(String fileName, Long declaredSize) {
+		try {
+			Path folder = Files.createTempDirectory(Utilities.PERSON_SOURCE_DIRECTORY_PREFIX);
+			String sourceFileName = Utilities.getSourceFileName(fileName);
+			UploadSession session = new UploadSession(UUID.randomUUID().toString(), folder.resolve(sourceFileName),
+					sourceFileName, declaredSize);
+			sessions.put(session.getId(), session);
+			return session;
+		} catch (IOException e) {
+			log.error("Cannot create file of upload session");
+			throw new FileStorageException("Cannot create file of upload session", e);
+		}
+	}
+
+	public Optional<UploadSession> find(String id) {
+		return Optional.ofNullable(sessions.get(id));
+	}
+
+	/**
+	 * Method aborts session, its input fails and its file is removed once its job
+	 * finishes
+	 *
+	 * @param id     id of session
+	 * @param reason reason of abort
+	 * @return aborted session if it is known
+	 */
+	public Optional<UploadSession> abort(String id, String reason) {
+		UploadSession session = sessions.get(id);
+		if (session != null) {
+			session.abort(reason);
+		}
+		return Optional.ofNullable(session);
+	}
+
+	/**
+	 * Method removes session, closes and removes its file
+	 *
+	 * @param session session to be removed
+	 */
+	public void close(UploadSession session) {
+		sessions.remove(session.getId());
+		session.abort("session closed");
+		session.close();
+		Utilities.cleanTemporaryFolder(session.getFile().getParent());
+	}
+
+	@Scheduled(fixedDelayString = "${ingestion.sessions.cleanup-interval:PT1M}")
+	void abortIdleSessions() {
+		Instant idleTime = Instant.now().minus(properties.getSessions().getIdleTimeout());
+		sessions.values().stream().filter(session -> session.isIdleSince(idleTime)).forEach(session -> {
+			log.warn("Upload session {} aborted after idle timeout", session.getId());
+			session.abort("no chunk received within idle timeout");
+		});
+	}
+
+}
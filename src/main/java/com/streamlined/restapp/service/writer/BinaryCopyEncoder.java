@@ -0,0 +1,108 @@
+package com.streamlined.restapp.service.writer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Class encodes rows in binary format of PostgreSQL COPY and sends them to
+ * database in blocks of fixed size
+ */
+
+class BinaryCopyEncoder {
+
+	private static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0 };
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int NULL_LENGTH = -1;
+	private static final short END_OF_DATA = -1;
+	private static final long POSTGRES_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+
+	private final CopyIn copyIn;
+	private final ByteBuffer buffer;
+
+	BinaryCopyEncoder(CopyIn copyIn) {
+		this.copyIn = copyIn;
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	}
+
+	void writeHeader() throws SQLException {
+		ensureCapacity(SIGNATURE.length + 2 * Integer.BYTES);
+		buffer.put(SIGNATURE).putInt(0).putInt(0);
+	}
+
+	void startRow(int fieldCount) throws SQLException {
+		ensureCapacity(Short.BYTES);
+		buffer.putShort((short) fieldCount);
+	}
+
+	void writeLong(Long value) throws SQLException {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		ensureCapacity(Integer.BYTES + Long.BYTES);
+		buffer.putInt(Long.BYTES).putLong(value);
+	}
+
+	void writeDouble(Number value) throws SQLException {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		ensureCapacity(Integer.BYTES + Double.BYTES);
+		buffer.putInt(Double.BYTES).putDouble(value.doubleValue());
+	}
+
+	void writeDate(LocalDate value) throws SQLException {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		ensureCapacity(2 * Integer.BYTES);
+		buffer.putInt(Integer.BYTES).putInt((int) (value.toEpochDay() - POSTGRES_EPOCH_DAY));
+	}
+
+	void writeText(Object value) throws SQLException {
+		if (value == null) {
+			writeNull();
+			return;
+		}
+		byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(Integer.BYTES);
+		buffer.putInt(bytes.length);
+		if (bytes.length > buffer.remaining()) {
+			flush();
+			copyIn.writeToCopy(bytes, 0, bytes.length);
+		} else {
+			buffer.put(bytes);
+		}
+	}
+
+	void finish() throws SQLException {
+		ensureCapacity(Short.BYTES);
+		buffer.putShort(END_OF_DATA);
+		flush();
+	}
+
+	private void writeNull() throws SQLException {
+		ensureCapacity(Integer.BYTES);
+		buffer.putInt(NULL_LENGTH);
+	}
+
+	private void ensureCapacity(int length) throws SQLException {
+		if (buffer.remaining() < length) {
+			flush();
+		}
+	}
+
+	private void flush() throws SQLException {
+		if (buffer.position() > 0) {
+			copyIn.writeToCopy(buffer.array(), 0, buffer.position());
+			buffer.clear();
+		}
+	}
+
+}
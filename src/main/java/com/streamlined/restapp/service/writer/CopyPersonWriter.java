@@ -0,0 +1,264 @@
+package com.streamlined.restapp.service.writer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.streamlined.restapp.config.IngestionProperties;
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.UploadFailure;
+import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.service.country.CountryCatalog;
+import com.streamlined.restapp.service.pipeline.Stage;
+import com.streamlined.restapp.service.pipeline.StageMetrics;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class streams person entities into temporary staging table by PostgreSQL
+ * binary COPY and merges them into person table with single statement. Rows
+ * violating check, foreign key or unique constraints of person table are
+ * marked in staging table with reason of failure before merge and skipped by
+ * it, so one bad row does not abort the whole upload and failed rows can be
+ * reported. Since person name is unique by itself, rows sharing name with
+ * other staged row or existing person of different birthday are marked as
+ * well. Rows matching existing persons are either marked as duplicates or
+ * skipped or merged into them by conflict clause of merge statement. Country
+ * ids are resolved by shared country catalog, person ids are allocated from
+ * pooled sequence by session of its own, since connection of transaction is
+ * busy copying rows.
+ */
+
+@Component
+@RequiredArgsConstructor
+public class CopyPersonWriter implements PersonWriter {
+
+	private static final String CREATE_STAGING_TABLE_SQL = """
+			create temporary table person_staging (
+				row_number bigint,
+				id bigint,
+				source text,
+				record bigint,
+				name text,
+				birthday date,
+				sex text,
+				eye_color text,
+				hair_color text,
+				weight float8,
+				height float8,
+				origin bigint,
+				citizenship bigint,
+				meals text,
+				reason text
+			)""";
+	private static final String COPY_SQL = """
+			copy person_staging (row_number, id, source, record, name, birthday, sex, eye_color, hair_color,
+				weight, height, origin, citizenship, meals) from stdin (format binary)""";
+	private static final int STAGING_FIELD_COUNT = 14;
+	private static final String CHECK_STAGING_SQL = """
+			update person_staging staging set reason = checked.reason
+			from (
+				select ctid,
+					case
+						when not coalesce(length(trim(name)) >= 3 and length(name) <= 255, false)
+							then 'invalid name'
+						when not coalesce(current_date > birthday, false) then 'invalid birthday'
+						when sex is null or sex not in ('MALE', 'FEMALE') then 'invalid sex'
+						when eye_color is null then 'missing eye color'
+						when hair_color is null then 'missing hair color'
+						when not coalesce(weight is null or (weight::real >= 50 and 150 >= weight::real), false)
+							then 'invalid weight'
+						when not coalesce(height is null or (height::real >= 60 and 220 >= height::real), false)
+							then 'invalid height'
+						when origin is null or origin not in (select id from country) then 'unknown country of origin'
+						when citizenship is null or citizenship not in (select id from country)
+							then 'unknown citizenship'
+						when not coalesce(regexp_like(meals, '\\w{3,}(,\\w{3,})*') and length(meals) <= 255, false)
+							then 'invalid favorite meals'
+					end as reason
+				from person_staging
+			) checked
+			where staging.ctid = checked.ctid and checked.reason is not null""";
+	private static final String CHECK_DUPLICATES_SQL = """
+			update person_staging staging set reason = 'duplicate person'
+			from (
+				select ctid, row_number() over (partition by name, birthday order by row_number) as occurrence
+				from person_staging
+				where reason is null
+			) checked
+			where staging.ctid = checked.ctid and checked.occurrence > 1""";
+	private static final String CHECK_DUPLICATE_NAMES_SQL = """
+			update person_staging staging set reason = 'duplicate name'
+			from (
+				select ctid, row_number() over (partition by name order by row_number) as occurrence
+				from person_staging
+				where reason is null
+			) checked
+			where staging.ctid = checked.ctid and checked.occurrence > 1""";
+	private static final String CHECK_EXISTING_NAMES_SQL = """
+			update person_staging staging set reason = 'duplicate name'
+			where reason is null
+				and exists (
+					select 1 from person where person.name = staging.name and person.birthday <> staging.birthday)""";
+	private static final String CHECK_EXISTING_SQL = """
+			update person_staging staging set reason = 'duplicate person'
+			where reason is null
+				and exists (
+					select 1 from person where person.name = staging.name and person.birthday = staging.birthday)""";
+	private static final String MERGE_SQL = """
+			with inserted as (
+				insert into person (id, name, birthday, sex, eye_color, hair_color, weight, height, origin,
+					citizenship, meals)
+				select id, name, birthday, sex, eye_color, hair_color, weight, height, origin, citizenship, meals
+				from person_staging
+				where reason is null
+				order by row_number
+				%s
+				returning name
+			)%s
+			select count(*) from inserted""";
+	private static final String MARK_CONFLICTS_SQL = """
+			,
+			conflicting as (
+				update person_staging staging set reason = 'duplicate person'
+				where reason is null
+					and not exists (select 1 from inserted where inserted.name = staging.name)
+			)""";
+	private static final String COUNT_FAILURES_SQL = "select count(*) from person_staging where reason is not null";
+	private static final String SELECT_FAILURES_SQL = """
+			select source, record, reason from person_staging
+			where reason is not null
+			order by source nulls first, record
+			limit ?""";
+	private static final String DROP_STAGING_TABLE_SQL = "drop table person_staging";
+
+	private final EntityManager entityManager;
+	private final CountryCatalog countryCatalog;
+	private final PersonIdGenerator idGenerator;
+	private final IngestionProperties properties;
+
+	@Override
+	@Transactional
+	public UploadResponse write(Iterator<Person> persons, OnConflict onConflict, WriteProgress progress) {
+		entityManager.flush();
+		return entityManager.unwrap(Session.class)
+				.doReturningWork(connection -> write(connection, persons, onConflict, progress));
+	}
+
+	private UploadResponse write(Connection connection, Iterator<Person> persons, OnConflict onConflict,
+			WriteProgress progress) throws SQLException {
+		long startTime = System.nanoTime();
+		StageMetrics batchMetrics = progress.getMetrics().stage(Stage.BATCH);
+		long startBatchNanos = batchMetrics.getBusyNanos();
+		execute(connection, CREATE_STAGING_TABLE_SQL);
+		long stagedEntries = copy(connection, persons, batchMetrics);
+		execute(connection, CHECK_STAGING_SQL);
+		execute(connection, CHECK_DUPLICATES_SQL);
+		execute(connection, CHECK_DUPLICATE_NAMES_SQL);
+		if (onConflict == OnConflict.FAIL) {
+			execute(connection, CHECK_EXISTING_SQL);
+		}
+		execute(connection, CHECK_EXISTING_NAMES_SQL);
+		queryCount(connection, MERGE_SQL.formatted(onConflict.getConflictClause(),
+				onConflict == OnConflict.FAIL ? MARK_CONFLICTS_SQL : ""));
+		long failedEntries = queryCount(connection, COUNT_FAILURES_SQL);
+		List<UploadFailure> failures = selectFailures(connection);
+		execute(connection, DROP_STAGING_TABLE_SQL);
+		progress.getMetrics().stage(Stage.WRITE).record(stagedEntries,
+				System.nanoTime() - startTime - (batchMetrics.getBusyNanos() - startBatchNanos));
+		progress.saved((int) (stagedEntries - failedEntries));
+		progress.failed((int) failedEntries);
+		return new UploadResponse((int) (stagedEntries - failedEntries), (int) failedEntries, failures);
+	}
+
+	private long queryCount(Connection connection, String sql) throws SQLException {
+		try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		}
+	}
+
+	private List<UploadFailure> selectFailures(Connection connection) throws SQLException {
+		List<UploadFailure> failures = new ArrayList<>();
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_FAILURES_SQL)) {
+			statement.setInt(1, properties.getMaxReportedFailures());
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					failures.add(new UploadFailure(resultSet.getString(1), resultSet.getLong(2), resultSet.getString(3)));
+				}
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * Method streams entities into staging table, time spent waiting for next
+	 * entity is recorded to batch stage
+	 *
+	 * @param connection   connection of current transaction
+	 * @param persons      entities to be staged
+	 * @param batchMetrics metrics of batch stage
+	 * @return number of staged entities
+	 * @throws SQLException if entities cannot be copied
+	 */
+	private long copy(Connection connection, Iterator<Person> persons, StageMetrics batchMetrics)
+			throws SQLException {
+		CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+		try (StatelessSession idSession = idGenerator.openSession()) {
+			BinaryCopyEncoder encoder = new BinaryCopyEncoder(copyIn);
+			encoder.writeHeader();
+			long rowNumber = 0;
+			for (long waitStartTime = System.nanoTime(); persons.hasNext(); waitStartTime = System.nanoTime()) {
+				Person person = persons.next();
+				batchMetrics.record(1, System.nanoTime() - waitStartTime);
+				encoder.startRow(STAGING_FIELD_COUNT);
+				encoder.writeLong(++rowNumber);
+				encoder.writeLong(idGenerator.next(idSession));
+				encoder.writeText(person.getSource());
+				encoder.writeLong(person.getRecord());
+				encoder.writeText(person.getName());
+				encoder.writeDate(person.getBirthday());
+				encoder.writeText(person.getSex());
+				encoder.writeText(person.getEyeColor());
+				encoder.writeText(person.getHairColor());
+				encoder.writeDouble(person.getWeight());
+				encoder.writeDouble(person.getHeight());
+				encoder.writeLong(countryCatalog.getId(person.getCountryOfOrigin()));
+				encoder.writeLong(countryCatalog.getId(person.getCitizenship()));
+				encoder.writeText(person.getFavoriteMeals());
+			}
+			encoder.finish();
+			copyIn.endCopy();
+			return rowNumber;
+		} finally {
+			if (copyIn.isActive()) {
+				copyIn.cancelCopy();
+			}
+		}
+	}
+
+	private void execute(Connection connection, String sql) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+
+	@Override
+	public WriteMode getWriteMode() {
+		return WriteMode.COPY;
+	}
+
+}
@@ -0,0 +1,316 @@
+package com.streamlined.restapp.service.writer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hibernate.Session;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.streamlined.restapp.config.IngestionProperties;
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.UploadFailure;
+import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.exception.WriteException;
+import com.streamlined.restapp.service.country.CountryCatalog;
+import com.streamlined.restapp.service.pipeline.Stage;
+import com.streamlined.restapp.service.pipeline.StageMetrics;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class saves person entities through persistence context in chunks of
+ * configured size, every chunk is committed in its own transaction. Identifiers
+ * are allocated from pooled sequence, so inserts of chunk are sent to database
+ * in JDBC batches. Entity with identifier is merged into person of that
+ * identifier, as repository saves it. If chunk fails, it is rolled back and
+ * both its halves are retried separately until failing entities are isolated,
+ * so entities of clean chunks are still committed in batches and single bad
+ * entity costs a number of retries logarithmic in chunk size. Chunks are
+ * written by configured number of writer threads, number of chunks waiting for
+ * them is limited, so collecting chunks is blocked until writers catch up.
+ * Entities which may already exist are not persisted but inserted by batched
+ * insert statement skipping or updating existing persons with the same name and
+ * birthday, their identifiers are allocated from the same pooled sequence.
+ * Since person name is unique by itself, entities sharing name with other
+ * entity of chunk or existing person of different birthday are reported as
+ * failed before chunk is written, so they do not cause chunk retries.
+ * Entities are validated by parser or service before they reach writer, so
+ * bean validation of persistence context is skipped for them.
+ */
+
+@Component
+@Slf4j
+public class JpaPersonWriter implements PersonWriter {
+
+	private static final String DUPLICATE_NAME_REASON = "duplicate name";
+	private static final String DUPLICATE_PERSON_REASON = "duplicate person";
+	private static final String WRITER_THREAD_NAME_PREFIX = "writer-";
+	private static final int QUEUED_CHUNKS_PER_THREAD = 2;
+	private static final long WRITER_WAIT_TIMEOUT_SECONDS = 60;
+	private static final String UPSERT_SQL = """
+			insert into person (id, name, birthday, sex, eye_color, hair_color, weight, height, origin,
+				citizenship, meals)
+			values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+			%s""";
+	private static final String SELECT_EXISTING_SQL = "select name, id, birthday from person where name = any(?)";
+
+	private record ExistingPerson(Long id, LocalDate birthday) {
+	}
+
+	private final EntityManager entityManager;
+	private final IngestionProperties properties;
+	private final CountryCatalog countryCatalog;
+	private final PersonIdGenerator idGenerator;
+	private final TransactionTemplate transactionTemplate;
+	private final AtomicInteger writerThreadCount;
+
+	public JpaPersonWriter(EntityManager entityManager, IngestionProperties properties,
+			CountryCatalog countryCatalog, PersonIdGenerator idGenerator,
+			PlatformTransactionManager transactionManager) {
+		this.entityManager = entityManager;
+		this.properties = properties;
+		this.countryCatalog = countryCatalog;
+		this.idGenerator = idGenerator;
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		writerThreadCount = new AtomicInteger();
+	}
+
+	@Override
+	public UploadResponse write(Iterator<Person> persons, OnConflict onConflict, WriteProgress progress) {
+		int writerThreads = properties.getWriterThreads();
+		StageMetrics batchMetrics = progress.getMetrics().stage(Stage.BATCH);
+		StageMetrics writeMetrics = progress.getMetrics().stage(Stage.WRITE);
+		List<UploadFailure> failures = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger succeededEntries = new AtomicInteger();
+		AtomicReference<RuntimeException> writerFailure = new AtomicReference<>();
+		Semaphore chunkPermits = new Semaphore(writerThreads * QUEUED_CHUNKS_PER_THREAD);
+		ExecutorService executor = Executors.newFixedThreadPool(writerThreads, runnable -> {
+			Thread thread = new Thread(runnable, WRITER_THREAD_NAME_PREFIX + writerThreadCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		writeMetrics.setParallelism(writerThreads);
+		writeMetrics.observeQueue(() -> writerThreads * QUEUED_CHUNKS_PER_THREAD - chunkPermits.availablePermits(),
+				writerThreads * QUEUED_CHUNKS_PER_THREAD);
+		long writtenEntries = 0;
+		try {
+			while (writerFailure.get() == null) {
+				long startTime = System.nanoTime();
+				List<Person> chunk = nextChunk(persons);
+				if (chunk.isEmpty()) {
+					break;
+				}
+				batchMetrics.record(chunk.size(), System.nanoTime() - startTime);
+				writtenEntries += chunk.size();
+				chunkPermits.acquire();
+				executor.execute(() -> {
+					try {
+						long writeStartTime = System.nanoTime();
+						succeededEntries
+								.addAndGet(writeCheckedChunk(chunk, onConflict, failures, progress));
+						writeMetrics.record(chunk.size(), System.nanoTime() - writeStartTime);
+					} catch (RuntimeException e) {
+						writerFailure.compareAndSet(null, e);
+					} finally {
+						chunkPermits.release();
+					}
+				});
+			}
+			executor.shutdown();
+			while (!executor.awaitTermination(WRITER_WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				log.debug("Waiting for writer threads to finish");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("Writing of upload interrupted");
+			throw new WriteException("Writing of upload interrupted", e);
+		} finally {
+			executor.shutdownNow();
+		}
+		if (writerFailure.get() != null) {
+			throw writerFailure.get();
+		}
+		return new UploadResponse(succeededEntries.get(), (int) (writtenEntries - succeededEntries.get()), failures);
+	}
+
+	private List<Person> nextChunk(Iterator<Person> persons) {
+		List<Person> chunk = new ArrayList<>(properties.getChunkSize());
+		while (chunk.size() < properties.getChunkSize() && persons.hasNext()) {
+			chunk.add(persons.next());
+		}
+		return chunk;
+	}
+
+	/**
+	 * Method reports entities of chunk colliding by name with other entities of
+	 * chunk or other existing persons as failed and saves runs of remaining
+	 * entities, entities of the same name and birthday as other existing person
+	 * are reported only if they should fail on conflict
+	 *
+	 * @param chunk      entities to be saved
+	 * @param onConflict handling of entities which already exist
+	 * @param failures   list of failures to be reported
+	 * @param progress   receiver of numbers of saved and failed entities
+	 * @return number of saved entities
+	 */
+	private int writeCheckedChunk(List<Person> chunk, OnConflict onConflict,
+			List<UploadFailure> failures, WriteProgress progress) {
+		Map<String, ExistingPerson> existingPersons = transactionTemplate.execute(status -> entityManager
+				.unwrap(Session.class).doReturningWork(connection -> selectExistingPersons(connection, chunk)));
+		Map<String, LocalDate> chunkBirthdays = new HashMap<>();
+		int savedEntries = 0;
+		int runStart = 0;
+		for (int k = 0; k < chunk.size(); k++) {
+			Person person = chunk.get(k);
+			ExistingPerson existingPerson = existingPersons.get(person.getName());
+			LocalDate existingBirthday = existingPerson == null || existingPerson.id().equals(person.getId()) ? null
+					: existingPerson.birthday();
+			LocalDate chunkBirthday = person.getName() == null ? null
+					: chunkBirthdays.putIfAbsent(person.getName(), person.getBirthday());
+			String reason = null;
+			if (existingBirthday != null && !existingBirthday.equals(person.getBirthday())
+					|| chunkBirthday != null && !chunkBirthday.equals(person.getBirthday())) {
+				reason = DUPLICATE_NAME_REASON;
+			} else if (onConflict == OnConflict.FAIL && (existingBirthday != null || chunkBirthday != null)) {
+				reason = DUPLICATE_PERSON_REASON;
+			}
+			if (reason != null) {
+				if (runStart < k) {
+					savedEntries += writeChunk(chunk.subList(runStart, k), onConflict, failures, progress);
+				}
+				fail(person, reason, failures, progress);
+				runStart = k + 1;
+			}
+		}
+		if (runStart < chunk.size()) {
+			savedEntries += writeChunk(chunk.subList(runStart, chunk.size()), onConflict, failures, progress);
+		}
+		return savedEntries;
+	}
+
+	private Map<String, ExistingPerson> selectExistingPersons(Connection connection, List<Person> chunk)
+			throws SQLException {
+		Map<String, ExistingPerson> persons = new HashMap<>();
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_EXISTING_SQL)) {
+			statement.setArray(1, connection.createArrayOf("varchar",
+					chunk.stream().map(Person::getName).filter(Objects::nonNull).distinct().toArray()));
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					persons.put(resultSet.getString(1),
+							new ExistingPerson(resultSet.getLong(2), resultSet.getObject(3, LocalDate.class)));
+				}
+			}
+		}
+		return persons;
+	}
+
+	/**
+	 * Method saves chunk of entities in new transaction, failed chunk is split in
+	 * halves which are saved separately
+	 *
+	 * @param chunk      entities to be saved
+	 * @param onConflict handling of entities which already exist
+	 * @param failures   list of failures to be reported
+	 * @param progress   receiver of numbers of saved and failed entities
+	 * @return number of saved entities
+	 */
+	private int writeChunk(List<Person> chunk, OnConflict onConflict, List<UploadFailure> failures,
+			WriteProgress progress) {
+		List<Person> newEntities = chunk.stream().filter(person -> person.getId() == null).toList();
+		try {
+			SkippableValidationIntegrator.skipValidation(() -> transactionTemplate.executeWithoutResult(status -> {
+				if (onConflict == OnConflict.FAIL) {
+					chunk.forEach(person -> {
+						if (person.getId() == null) {
+							entityManager.persist(person);
+						} else {
+							entityManager.merge(person);
+						}
+					});
+					entityManager.flush();
+				} else {
+					entityManager.unwrap(Session.class).doWork(connection -> upsert(connection, chunk, onConflict));
+				}
+			}));
+			progress.saved(chunk.size());
+			return chunk.size();
+		} catch (RuntimeException e) {
+			newEntities.forEach(person -> person.setId(null));
+			if (chunk.size() == 1) {
+				Person person = chunk.get(0);
+				log.debug("Error saving entity {} of source {}", person.getRecord(), person.getSource(), e);
+				fail(person, getReason(e), failures, progress);
+				return 0;
+			}
+			int half = chunk.size() / 2;
+			return writeChunk(chunk.subList(0, half), onConflict, failures, progress)
+					+ writeChunk(chunk.subList(half, chunk.size()), onConflict, failures, progress);
+		}
+	}
+
+	private void fail(Person person, String reason, List<UploadFailure> failures, WriteProgress progress) {
+		if (failures.size() < properties.getMaxReportedFailures()) {
+			failures.add(new UploadFailure(person.getSource(), person.getRecord(), reason));
+		}
+		progress.failed(1);
+	}
+
+	private void upsert(Connection connection, List<Person> chunk, OnConflict onConflict) throws SQLException {
+		try (PreparedStatement statement = connection
+				.prepareStatement(UPSERT_SQL.formatted(onConflict.getConflictClause()))) {
+			for (Person person : chunk) {
+				statement.setLong(1, idGenerator.next());
+				statement.setString(2, person.getName());
+				statement.setObject(3, person.getBirthday());
+				statement.setString(4, getName(person.getSex()));
+				statement.setString(5, getName(person.getEyeColor()));
+				statement.setString(6, getName(person.getHairColor()));
+				statement.setBigDecimal(7, person.getWeight());
+				statement.setBigDecimal(8, person.getHeight());
+				statement.setObject(9, countryCatalog.getId(person.getCountryOfOrigin()), Types.BIGINT);
+				statement.setObject(10, countryCatalog.getId(person.getCitizenship()), Types.BIGINT);
+				statement.setString(11, person.getFavoriteMeals());
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+
+	private String getName(Enum<?> value) {
+		return value == null ? null : value.name();
+	}
+
+	private String getReason(RuntimeException e) {
+		String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+		return message == null ? e.getClass().getSimpleName() : message.lines().findFirst().orElse(message);
+	}
+
+	@Override
+	public WriteMode getWriteMode() {
+		return WriteMode.JPA;
+	}
+
+}
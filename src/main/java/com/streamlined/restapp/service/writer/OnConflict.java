@@ -0,0 +1,45 @@
+package com.streamlined.restapp.service.writer;
+
+/**
+ * Way uploaded person entity is handled if person with the same name and
+ * birthday already exists
+ */
+
+public enum OnConflict {
+
+	/**
+	 * Entity is counted as failed
+	 */
+	FAIL("on conflict do nothing"),
+
+	/**
+	 * Entity is skipped, existing person is kept unchanged
+	 */
+	SKIP("on conflict (name, birthday) do nothing"),
+
+	/**
+	 * Existing person is updated with data of entity
+	 */
+	UPDATE("""
+			on conflict (name, birthday) do update set sex = excluded.sex, eye_color = excluded.eye_color,
+				hair_color = excluded.hair_color, weight = excluded.weight, height = excluded.height,
+				origin = excluded.origin, citizenship = excluded.citizenship, meals = excluded.meals""");
+
+	private final String conflictClause;
+
+	private OnConflict(String conflictClause) {
+		this.conflictClause = conflictClause;
+	}
+
+	/**
+	 * Method returns conflict clause of statement inserting into person table,
+	 * clause of {@link #FAIL} only ignores rows inserted concurrently since they
+	 * were checked
+	 *
+	 * @return conflict clause of insert statement
+	 */
+	String getConflictClause() {
+		return conflictClause;
+	}
+
+}
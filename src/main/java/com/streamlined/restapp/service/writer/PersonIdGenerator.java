@@ -0,0 +1,64 @@
+package com.streamlined.restapp.service.writer;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.stereotype.Component;
+
+import com.streamlined.restapp.data.Person;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class allocates identifiers of persons inserted by plain SQL statements from
+ * pooled optimizer of person entity, so one call of person sequence serves its
+ * whole increment like it does for persisted entities. Default value of id
+ * column would take one sequence value of increment 50 for every row instead.
+ */
+
+@Component
+@RequiredArgsConstructor
+class PersonIdGenerator {
+
+	private final EntityManager entityManager;
+
+	/**
+	 * Method returns next identifier of person from session of current
+	 * transaction
+	 *
+	 * @return new identifier of person
+	 */
+	long next() {
+		return next(entityManager.unwrap(SharedSessionContractImplementor.class));
+	}
+
+	/**
+	 * Method opens session with connection of its own, so identifiers can be
+	 * allocated while connection of current transaction is busy copying rows
+	 *
+	 * @return new session to be closed by caller
+	 */
+	StatelessSession openSession() {
+		return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).openStatelessSession();
+	}
+
+	/**
+	 * Method returns next identifier of person from given session
+	 *
+	 * @param session session opened by {@link #openSession()}
+	 * @return new identifier of person
+	 */
+	long next(StatelessSession session) {
+		return next((SharedSessionContractImplementor) session);
+	}
+
+	private long next(SharedSessionContractImplementor session) {
+		BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+				.getEntityDescriptor(Person.class).getGenerator();
+		return (Long) generator.generate(session, null, null, EventType.INSERT);
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.streamlined.restapp.service.writer;
+
+import java.util.Iterator;
+
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.dto.UploadResponse;
+
+public interface PersonWriter {
+
+	/**
+	 * Method saves entities, entity which cannot be saved is counted as failed
+	 * without aborting the rest of them. Entity skipped or merged into existing
+	 * person with the same name and birthday is counted as saved.
+	 *
+	 * @param persons    entities to be saved
+	 * @param onConflict handling of entities which already exist
+	 * @param progress   receiver of numbers of saved and failed entities
+	 * @return numbers of saved and failed entities, failures are reported by
+	 *         source and record of entity
+	 */
+	UploadResponse write(Iterator<Person> persons, OnConflict onConflict, WriteProgress progress);
+
+	WriteMode getWriteMode();
+
+}
@@ -0,0 +1,109 @@
+package com.streamlined.restapp.service.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.beanvalidation.BeanValidationEventListener;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PreDeleteEvent;
+import org.hibernate.event.spi.PreDeleteEventListener;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Class wraps bean validation listener registered by Hibernate, so validation
+ * of entities on write stays on for all persistence operations but may be
+ * skipped by ingestion writers, whose entities are already validated by parser
+ * or by service before they are written. Integrator runs after Hibernate
+ * registers its own listener.
+ */
+
+public class SkippableValidationIntegrator implements Integrator {
+
+	private static final ThreadLocal<Boolean> SKIPPED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	/**
+	 * Method runs action in current thread without bean validation of entities
+	 * written by it
+	 *
+	 * @param action action writing entities which are already validated
+	 */
+	static void skipValidation(Runnable action) {
+		SKIPPED.set(Boolean.TRUE);
+		try {
+			action.run();
+		} finally {
+			SKIPPED.remove();
+		}
+	}
+
+	@Override
+	public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+			SessionFactoryImplementor sessionFactory) {
+		EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+		wrap(registry.getEventListenerGroup(EventType.PRE_INSERT), SkippableValidationListener::new);
+		wrap(registry.getEventListenerGroup(EventType.PRE_UPDATE), SkippableValidationListener::new);
+		wrap(registry.getEventListenerGroup(EventType.PRE_DELETE), SkippableValidationListener::new);
+	}
+
+	// listeners of group cannot be replaced in place without iterating them
+	@SuppressWarnings("deprecation")
+	private <T> void wrap(EventListenerGroup<T> group, Function<BeanValidationEventListener, T> wrapper) {
+		List<T> listeners = new ArrayList<>();
+		boolean wrapped = false;
+		for (T listener : group.listeners()) {
+			if (listener instanceof BeanValidationEventListener validationListener) {
+				listeners.add(wrapper.apply(validationListener));
+				wrapped = true;
+			} else {
+				listeners.add(listener);
+			}
+		}
+		if (wrapped) {
+			group.clearListeners();
+			listeners.forEach(group::appendListener);
+		}
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+		// listeners are dropped with session factory
+	}
+
+	private static class SkippableValidationListener
+			implements PreInsertEventListener, PreUpdateEventListener, PreDeleteEventListener {
+
+		private final BeanValidationEventListener listener;
+
+		private SkippableValidationListener(BeanValidationEventListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public boolean onPreInsert(PreInsertEvent event) {
+			return !SKIPPED.get() && listener.onPreInsert(event);
+		}
+
+		@Override
+		public boolean onPreUpdate(PreUpdateEvent event) {
+			return !SKIPPED.get() && listener.onPreUpdate(event);
+		}
+
+		@Override
+		public boolean onPreDelete(PreDeleteEvent event) {
+			return !SKIPPED.get() && listener.onPreDelete(event);
+		}
+
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.streamlined.restapp.service.writer;
+
+/**
+ * Way uploaded person entities are written to database
+ */
+
+public enum WriteMode {
+
+	/**
+	 * Entities are saved through persistence context in JDBC batches
+	 */
+	JPA,
+
+	/**
+	 * Entities are loaded by PostgreSQL COPY into staging table and merged into
+	 * person table
+	 */
+	COPY
+
+}
@@ -0,0 +1,34 @@
+package com.streamlined.restapp.service.writer;
+
+import com.streamlined.restapp.service.pipeline.PipelineMetrics;
+
+/**
+ * Receiver of numbers of entities processed by writer
+ */
+
+public interface WriteProgress {
+
+	WriteProgress NONE = new WriteProgress() {
+		@Override
+		public void saved(int count) {
+		}
+
+		@Override
+		public void failed(int count) {
+		}
+	};
+
+	void saved(int count);
+
+	void failed(int count);
+
+	/**
+	 * Method returns metrics of pipeline to record batch and write stages to
+	 *
+	 * @return pipeline metrics
+	 */
+	default PipelineMetrics getMetrics() {
+		return PipelineMetrics.NONE;
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.streamlined.restapp.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.streamlined.restapp.dao.CountryRepository;
+import com.streamlined.restapp.data.Country;
+import com.streamlined.restapp.data.Person;
+import com.streamlined.restapp.service.country.CountryCatalog;
+import com.streamlined.restapp.service.parser.PersonDeserializer;
+
+/**
+ * Benchmark compares rows per second of bean deserialization of person entity
+ * and {@link PersonDeserializer} with country catalog. Sample data file is
+ * repeated to build input array, both readers parse the same bytes in
+ * alternating rounds, median throughput and allocated bytes per row are
+ * reported.
+ */
+
+public class PersonDeserializerBenchmark {
+
+	private static final String SAMPLE_RESOURCE = "/data/data0.json";
+	private static final int SAMPLE_REPEAT_COUNT = 200;
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int MEASURED_ROUNDS = 15;
+
+	public static void main(String[] args) throws IOException {
+		byte[] sample;
+		try (InputStream input = PersonDeserializerBenchmark.class.getResourceAsStream(SAMPLE_RESOURCE)) {
+			sample = input.readAllBytes();
+		}
+		byte[] data = repeat(sample, SAMPLE_REPEAT_COUNT);
+
+		ObjectMapper beanMapper = new ObjectMapper();
+		beanMapper.registerModule(new JavaTimeModule());
+		ObjectReader beanReader = beanMapper.readerFor(Person.class);
+
+		CountryRepository countryRepository = mock(CountryRepository.class);
+		when(countryRepository.findAll()).thenReturn(getCountries(beanReader, sample));
+		ObjectMapper catalogMapper = new ObjectMapper();
+		catalogMapper.registerModule(new JavaTimeModule());
+		catalogMapper.registerModule(new SimpleModule().addDeserializer(Person.class,
+				new PersonDeserializer(new CountryCatalog(countryRepository))));
+		ObjectReader catalogReader = catalogMapper.readerFor(Person.class);
+
+		for (int k = 0; k < WARMUP_ROUNDS; k++) {
+			parse(beanReader, data);
+			parse(catalogReader, data);
+		}
+		Measurement bean = new Measurement("bean deserializer");
+		Measurement custom = new Measurement("person deserializer");
+		for (int k = 0; k < MEASURED_ROUNDS; k++) {
+			bean.measure(beanReader, data);
+			custom.measure(catalogReader, data);
+		}
+		bean.report();
+		custom.report();
+	}
+
+	private static byte[] repeat(byte[] sample, int count) {
+		String array = new String(sample).trim();
+		String elements = array.substring(1, array.length() - 1);
+		StringBuilder builder = new StringBuilder("[");
+		for (int k = 0; k < count; k++) {
+			builder.append(k == 0 ? "" : ",").append(elements);
+		}
+		return builder.append(']').toString().getBytes();
+	}
+
+	private static List<Country> getCountries(ObjectReader reader, byte[] sample) throws IOException {
+		Map<Long, Country> countries = new LinkedHashMap<>();
+		try (MappingIterator<Person> persons = reader.readValues(sample)) {
+			while (persons.hasNextValue()) {
+				Person person = persons.nextValue();
+				countries.putIfAbsent(person.getCountryOfOrigin().getId(), person.getCountryOfOrigin());
+				countries.putIfAbsent(person.getCitizenship().getId(), person.getCitizenship());
+			}
+		}
+		return new ArrayList<>(countries.values());
+	}
+
+	private static long parse(ObjectReader reader, byte[] data) throws IOException {
+		long count = 0;
+		try (MappingIterator<Person> persons = reader.readValues(data)) {
+			for (; persons.hasNextValue(); count++) {
+				persons.nextValue();
+			}
+		}
+		return count;
+	}
+
+	private static class Measurement {
+
+		private final String name;
+		private final List<Double> rowsPerSecond = new ArrayList<>();
+		private long rows;
+		private long allocatedBytes;
+
+		private Measurement(String name) {
+			this.name = name;
+		}
+
+		private void measure(ObjectReader reader, byte[] data) throws IOException {
+			com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+					.getThreadMXBean();
+			long startBytes = threadBean.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			long count = parse(reader, data);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			allocatedBytes += threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+			rows += count;
+			rowsPerSecond.add(count / seconds);
+		}
+
+		private void report() {
+			Collections.sort(rowsPerSecond);
+			System.out.printf("%-20s %,12.0f rows/s %,8d bytes/row%n", name,
+					rowsPerSecond.get(rowsPerSecond.size() / 2), allocatedBytes / rows);
+		}
+
+	}
+
+}
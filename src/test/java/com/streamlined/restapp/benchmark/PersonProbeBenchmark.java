@@ -0,0 +1,324 @@
+package com.streamlined.restapp.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import com.streamlined.restapp.data.Color;
+import com.streamlined.restapp.data.Sex;
+
+/**
+ * Benchmark measures latency of person list queries for fixed mix of probes
+ * and time of inserting persons without and with indexes of changelog 005, so
+ * read gains can be weighed against cost of ingestion. Index definitions are
+ * read from the changelog itself, so measured indexes are the migrated ones. Person
+ * table is filled with given number of persons generated by database from
+ * seeded random numbers, so every run measures the same data. Indexes are
+ * dropped, probes and insert are measured, then indexes are created and both
+ * are measured again, finally missing indexes are restored. Every probe runs page
+ * query and count query the way person list does, 50th and 99th percentiles
+ * of their latency are reported. Inserted persons are rolled back.
+ *
+ * Arguments are JDBC URL, number of persons, user name and password, URL is
+ * required and defaults of others are one million persons and user of
+ * application.yaml. Benchmark refuses to run if person table is not empty and
+ * deletes generated persons when it is finished, so it should be run against
+ * its own database updated by changelogs.
+ */
+
+public class PersonProbeBenchmark {
+
+	private static final int DEFAULT_PERSON_COUNT = 1_000_000;
+	private static final String DEFAULT_USER = "postgres";
+	private static final String DEFAULT_PASSWORD = "secret";
+	private static final double SEED = 0.25;
+	private static final int PAGE_SIZE = 10;
+	private static final int WARMUP_ROUNDS = 20;
+	private static final int MEASURED_ROUNDS = 200;
+	private static final int INSERTED_PERSON_COUNT = 10_000;
+	private static final int INSERT_ROUNDS = 5;
+	private static final String INDEX_CHANGELOG = "/db/changelog/changelog-005.0.xml";
+	private static final String LIQUIBASE_NAMESPACE = "http://www.liquibase.org/xml/ns/dbchangelog";
+	private static final Pattern INDEX_NAME_PATTERN = Pattern.compile("create\\s+index\\s+(\\w+)",
+			Pattern.CASE_INSENSITIVE);
+	private static final String[] FIRST_NAMES = { "Charley", "Jess", "Tom", "Hiram", "Perry", "Nathan", "Claude",
+			"Oliver", "Eli", "Amos", "Cecil", "Guy", "Milton", "Vernon", "Alexander", "Clarence", "Howard", "Jasper",
+			"Walter", "Mack", "Hubert", "Alfred", "Martin", "Joseph", "Wallace", "Eugene", "Hugh", "Earl" };
+	private static final String[] LAST_NAMES = { "Thomas", "Newton", "Kent", "Horton", "Burgess", "Gleason", "Hahn",
+			"Sorensen", "Elliott", "Summers", "Webb", "Cash", "Nielsen", "Jensen", "Brady", "Adams", "Griffith",
+			"Nichols", "Steiner", "Denton", "Jennings", "Emery", "Ellis", "Ackerman", "Crowley", "Justice", "Helton",
+			"Waller", "Wallace" };
+	private static final String GENERATE_SQL = """
+			insert into person (name, birthday, sex, eye_color, hair_color, weight, height, origin, citizenship,
+				meals)
+			select first_names[1 + floor(random() * cardinality(first_names))::int] || ' '
+					|| last_names[1 + floor(random() * cardinality(last_names))::int] || ' ' || n,
+				date '1980-01-01' + floor(random() * 16000)::int,
+				sexes[1 + floor(random() * cardinality(sexes))::int],
+				colors[1 + floor(random() * cardinality(colors))::int],
+				colors[1 + floor(random() * cardinality(colors))::int],
+				50 + random() * 100, 60 + random() * 160,
+				countries[1 + floor(random() * cardinality(countries))::int],
+				countries[1 + floor(random() * cardinality(countries))::int],
+				'apple,pear,banana'
+			from generate_series(?, ?) n,
+				(select ?::varchar[] first_names, ?::varchar[] last_names, ?::varchar[] sexes,
+					?::varchar[] colors, (select array_agg(id order by id) from country) countries) v""";
+	private static final String PAGE_SQL = """
+			select id, name, birthday, sex, eye_color, height from person where %s
+			order by id limit %d""";
+	private static final String COUNT_SQL = "select count(id) from person where %s";
+
+	private record Probe(String name, String condition, List<Object[]> parameters) {
+	}
+
+	public static void main(String[] args) throws SQLException {
+		if (args.length == 0) {
+			System.err.println("Usage: PersonProbeBenchmark <JDBC URL> [person count] [user] [password]");
+			return;
+		}
+		String url = args[0];
+		int personCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PERSON_COUNT;
+		String user = args.length > 2 ? args[2] : DEFAULT_USER;
+		String password = args.length > 3 ? args[3] : DEFAULT_PASSWORD;
+		Map<String, String> indexes = loadIndexes();
+		try (Connection connection = DriverManager.getConnection(url, user, password)) {
+			checkPersonTableEmpty(connection);
+			try {
+				long start = System.nanoTime();
+				generatePersons(connection, 1, personCount);
+				System.out.printf("%,d persons generated in %,.1f s%n", personCount,
+						(System.nanoTime() - start) / 1e9);
+				for (String index : indexes.keySet()) {
+					execute(connection, "drop index if exists " + index);
+				}
+				execute(connection, "vacuum analyze person");
+				List<Probe> probes = getProbes(connection);
+				Map<String, List<Double>> before = measure(connection, probes);
+				before.put("insert", measureInsert(connection, personCount));
+				start = System.nanoTime();
+				for (String definition : indexes.values()) {
+					execute(connection, definition);
+				}
+				System.out.printf("%d indexes created in %,.1f s%n", indexes.size(),
+						(System.nanoTime() - start) / 1e9);
+				execute(connection, "vacuum analyze person");
+				Map<String, List<Double>> after = measure(connection, probes);
+				after.put("insert", measureInsert(connection, personCount));
+				report(before, after);
+			} finally {
+				execute(connection, "truncate person");
+				restoreIndexes(connection, indexes);
+			}
+		}
+	}
+
+	/**
+	 * Method reads statements of changelog 005 which create indexes for person
+	 * probes
+	 *
+	 * @return definitions of indexes by their names
+	 */
+	private static Map<String, String> loadIndexes() {
+		try (InputStream input = PersonProbeBenchmark.class.getResourceAsStream(INDEX_CHANGELOG)) {
+			if (input == null) {
+				throw new IllegalStateException("Changelog %s not found".formatted(INDEX_CHANGELOG));
+			}
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+			NodeList statements = factory.newDocumentBuilder().parse(input)
+					.getElementsByTagNameNS(LIQUIBASE_NAMESPACE, "sql");
+			Map<String, String> indexes = new LinkedHashMap<>();
+			for (int k = 0; k < statements.getLength(); k++) {
+				String definition = statements.item(k).getTextContent().strip().replaceAll("\\s+", " ");
+				Matcher matcher = INDEX_NAME_PATTERN.matcher(definition);
+				if (matcher.find()) {
+					indexes.put(matcher.group(1), definition.replaceAll(";$", ""));
+				}
+			}
+			return indexes;
+		} catch (IOException | ParserConfigurationException | SAXException e) {
+			throw new IllegalStateException("Cannot read changelog %s".formatted(INDEX_CHANGELOG), e);
+		}
+	}
+
+	/**
+	 * Method creates indexes of changelog which are missing, so database is left
+	 * as changelogs migrated it
+	 *
+	 * @param connection connection to database
+	 * @param indexes    definitions of indexes by their names
+	 * @throws SQLException if index cannot be created
+	 */
+	private static void restoreIndexes(Connection connection, Map<String, String> indexes) throws SQLException {
+		try (PreparedStatement exists = connection.prepareStatement("select to_regclass(?) is not null")) {
+			for (Map.Entry<String, String> index : indexes.entrySet()) {
+				exists.setString(1, index.getKey());
+				try (ResultSet resultSet = exists.executeQuery()) {
+					resultSet.next();
+					if (!resultSet.getBoolean(1)) {
+						execute(connection, index.getValue());
+					}
+				}
+			}
+		}
+	}
+
+	private static void checkPersonTableEmpty(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("select exists (select 1 from person)")) {
+			resultSet.next();
+			if (resultSet.getBoolean(1)) {
+				throw new IllegalStateException(
+						"Person table is not empty, benchmark should be run against its own database");
+			}
+		}
+	}
+
+	/**
+	 * Method measures time of inserting persons in transaction which is rolled
+	 * back, so every round inserts the same persons into the same table
+	 *
+	 * @param connection  connection to database
+	 * @param personCount number of persons already generated
+	 * @return durations of insert rounds in milliseconds
+	 * @throws SQLException if persons cannot be inserted
+	 */
+	private static List<Double> measureInsert(Connection connection, int personCount) throws SQLException {
+		List<Double> durations = new ArrayList<>();
+		connection.setAutoCommit(false);
+		try {
+			for (int round = 0; round < INSERT_ROUNDS; round++) {
+				long start = System.nanoTime();
+				generatePersons(connection, personCount + 1, personCount + INSERTED_PERSON_COUNT);
+				durations.add((System.nanoTime() - start) / 1e6);
+				connection.rollback();
+			}
+		} finally {
+			connection.rollback();
+			connection.setAutoCommit(true);
+		}
+		return durations;
+	}
+
+	private static void generatePersons(Connection connection, int first, int last) throws SQLException {
+		try (PreparedStatement seed = connection.prepareStatement("select setseed(?)");
+				PreparedStatement generate = connection.prepareStatement(GENERATE_SQL)) {
+			seed.setDouble(1, SEED);
+			seed.execute();
+			generate.setInt(1, first);
+			generate.setInt(2, last);
+			generate.setArray(3, connection.createArrayOf("varchar", FIRST_NAMES));
+			generate.setArray(4, connection.createArrayOf("varchar", LAST_NAMES));
+			generate.setArray(5, connection.createArrayOf("varchar", getNames(Sex.values())));
+			generate.setArray(6, connection.createArrayOf("varchar", getNames(Color.values())));
+			generate.executeUpdate();
+		}
+	}
+
+	private static Object[] getNames(Enum<?>[] values) {
+		return Arrays.stream(values).map(Enum::name).toArray();
+	}
+
+	private static List<Probe> getProbes(Connection connection) throws SQLException {
+		List<Long> countries = new ArrayList<>();
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("select id from country order by id")) {
+			while (resultSet.next()) {
+				countries.add(resultSet.getLong(1));
+			}
+		}
+		long middleId;
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement
+						.executeQuery("select percentile_disc(0.5) within group (order by id) from person")) {
+			resultSet.next();
+			middleId = resultSet.getLong(1);
+		}
+		List<Object[]> colors = Arrays.stream(Color.values()).map(color -> new Object[] { color.name() }).toList();
+		List<Object[]> citizenships = countries.stream().map(country -> new Object[] { country }).toList();
+		return List.of(new Probe("eye color", "eye_color = ?", colors),
+				new Probe("hair color", "hair_color = ?", colors),
+				new Probe("citizenship", "citizenship = ?", citizenships),
+				new Probe("sex and citizenship", "sex = ? and citizenship = ?",
+						countries.stream().map(country -> new Object[] { Sex.FEMALE.name(), country }).toList()),
+				new Probe("eye color after cursor", "eye_color = ? and id > ?",
+						Arrays.stream(Color.values()).map(color -> new Object[] { color.name(), middleId }).toList()),
+				new Probe("name prefix", "name >= ? and name < ? and name like ?",
+						List.of(new Object[] { "Wal", "Wam", "Wal%" }, new Object[] { "Hu", "Hv", "Hu%" })));
+	}
+
+	private static Map<String, List<Double>> measure(Connection connection, List<Probe> probes)
+			throws SQLException {
+		Map<String, List<Double>> latencies = new LinkedHashMap<>();
+		for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+			for (Probe probe : probes) {
+				Object[] parameters = probe.parameters().get(round % probe.parameters().size());
+				double pageMillis = run(connection, PAGE_SQL.formatted(probe.condition(), PAGE_SIZE + 1), parameters);
+				double countMillis = run(connection, COUNT_SQL.formatted(probe.condition()), parameters);
+				if (round >= WARMUP_ROUNDS) {
+					latencies.computeIfAbsent(probe.name() + " page", key -> new ArrayList<>()).add(pageMillis);
+					latencies.computeIfAbsent(probe.name() + " count", key -> new ArrayList<>()).add(countMillis);
+				}
+			}
+		}
+		return latencies;
+	}
+
+	private static double run(Connection connection, String sql, Object[] parameters) throws SQLException {
+		long start = System.nanoTime();
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			for (int k = 0; k < parameters.length; k++) {
+				statement.setObject(k + 1, parameters[k]);
+			}
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					resultSet.getObject(1);
+				}
+			}
+		}
+		return (System.nanoTime() - start) / 1e6;
+	}
+
+	private static void execute(Connection connection, String sql) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+
+	private static void report(Map<String, List<Double>> before, Map<String, List<Double>> after) {
+		System.out.printf("%-30s %12s %12s %12s %12s%n", "probe", "before p50", "before p99", "after p50",
+				"after p99");
+		for (String probe : before.keySet()) {
+			System.out.printf("%-30s %9.2f ms %9.2f ms %9.2f ms %9.2f ms%n", probe,
+					percentile(before.get(probe), 0.5), percentile(before.get(probe), 0.99),
+					percentile(after.get(probe), 0.5), percentile(after.get(probe), 0.99));
+		}
+	}
+
+	private static double percentile(List<Double> values, double fraction) {
+		List<Double> sorted = new ArrayList<>(values);
+		Collections.sort(sorted);
+		return sorted.get((int) Math.ceil(fraction * sorted.size()) - 1);
+	}
+
+}
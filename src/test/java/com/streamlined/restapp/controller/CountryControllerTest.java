@@ -22,6 +22,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -36,6 +37,7 @@ import com.streamlined.restapp.dto.mapper.CountryMapper;
 
 @SpringBootTest(webEnvironment = WebEnvironment.MOCK, classes = RestApplication.class)
 @AutoConfigureMockMvc
+@ActiveProfiles("test")
 class CountryControllerTest {
 
 	@Autowired
@@ -1,23 +1,36 @@
 package com.streamlined.restapp.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -26,13 +39,18 @@ import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import com.streamlined.restapp.RestApplication;
+import com.streamlined.restapp.config.IngestionProperties;
+import com.streamlined.restapp.dao.PersonImportRepository;
 import com.streamlined.restapp.dao.PersonRepository;
 import com.streamlined.restapp.data.Color;
 import com.streamlined.restapp.data.Continent;
@@ -40,16 +58,31 @@ import com.streamlined.restapp.data.Country;
 import com.streamlined.restapp.data.Person;
 import com.streamlined.restapp.data.Sex;
 import com.streamlined.restapp.dto.EssentialPersonDto;
+import com.streamlined.restapp.dto.ParserSchedulerStatus;
 import com.streamlined.restapp.dto.PersonListDto;
+import com.streamlined.restapp.dto.UploadFailure;
+import com.streamlined.restapp.dto.UploadJobDto;
 import com.streamlined.restapp.dto.UploadResponse;
+import com.streamlined.restapp.dto.UploadSessionDto;
+import com.streamlined.restapp.service.person.TotalMode;
+import com.streamlined.restapp.service.pipeline.Stage;
+import com.streamlined.restapp.service.upload.UploadJobState;
+import com.streamlined.restapp.service.writer.OnConflict;
+import com.streamlined.restapp.service.writer.WriteMode;
 
-@SpringBootTest(webEnvironment = WebEnvironment.MOCK, classes = RestApplication.class)
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest(webEnvironment = WebEnvironment.MOCK, classes = RestApplication.class, properties = {
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.streamlined.restapp.controller.StatementCounter" })
 @AutoConfigureMockMvc
+@ActiveProfiles("test")
 @Transactional
 class PersonControllerTest {
 
 	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 	private static final String MULTIPART_FILE_NAME = "file";
+	private static final long UPLOAD_JOB_TIMEOUT_MILLIS = 30_000;
+	private static final long UPLOAD_JOB_POLL_INTERVAL_MILLIS = 100;
 
 	@Autowired
 	private MockMvc mvc;
@@ -57,8 +90,17 @@ class PersonControllerTest {
 	private ObjectMapper mapper;
 	@Autowired
 	private PersonRepository personRepository;
+	@Autowired
+	private PersonImportRepository personImportRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private IngestionProperties ingestionProperties;
 
 	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	void testGetAllPersonsSuccess() throws Exception {
 		final Country country = Country.builder().id(1L).name("India").continent(Continent.ASIA).capital("New Delhi")
 				.population(1428627663).square(3287263).build();
@@ -77,15 +119,20 @@ class PersonControllerTest {
 						.favoriteMeals("pear,apple,banana").build());
 		personRepository.deleteAll();
 		personRepository.saveAll(personList);
-
-		MvcResult mvcResult = mvc.perform(get("/api/person"))
-				.andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON)).andReturn();
-
-		String content = mvcResult.getResponse().getContentAsString();
-		CollectionType collectionType = mapper.getTypeFactory().constructCollectionType(List.class, Person.class);
-		Object value = mapper.readValue(content, collectionType);
-
-		assertThat(value).isNotNull().asList().usingRecursiveComparison().isEqualTo(personList);
+		try {
+			MvcResult mvcResult = mvc.perform(get("/api/person")).andExpect(request().asyncStarted()).andReturn();
+			mvcResult = mvc.perform(asyncDispatch(mvcResult))
+					.andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON)).andReturn();
+
+			String content = mvcResult.getResponse().getContentAsString();
+			CollectionType collectionType = mapper.getTypeFactory().constructCollectionType(List.class,
+					Person.class);
+			Object value = mapper.readValue(content, collectionType);
+
+			assertThat(value).isNotNull().asList().usingRecursiveComparison().isEqualTo(personList);
+		} finally {
+			personRepository.deleteAll();
+		}
 	}
 
 	@Test
@@ -107,6 +154,69 @@ class PersonControllerTest {
 		assertThat(person).isNotNull().usingRecursiveComparison().isEqualTo(newPerson);
 	}
 
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testGetAllPersonsRunsSingleStatement() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Country uk = Country.builder().id(2L).name("United Kingdom").continent(Continent.EUROPE).capital("London")
+				.population(67596281).square(244376).build();
+		final Country canada = Country.builder().id(3L).name("Canada").continent(Continent.NORTH_AMERICA)
+				.capital("Ottawa").population(40769890).square(9984670).build();
+		final List<Person> personList = List.of(
+				Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+						.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(uk)
+						.favoriteMeals("apple,pear,banana").build(),
+				Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.BLUE).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(70))
+						.height(BigDecimal.valueOf(160)).countryOfOrigin(uk).citizenship(canada)
+						.favoriteMeals("banana,apple,pear").build(),
+				Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.RED).hairColor(Color.GREEN).weight(BigDecimal.valueOf(50))
+						.height(BigDecimal.valueOf(120)).countryOfOrigin(canada).citizenship(usa)
+						.favoriteMeals("pear,apple,banana").build());
+		personRepository.deleteAll();
+		personRepository.saveAll(personList);
+		try {
+			MvcResult mvcResult = StatementCounter.perform(mvc, get("/api/person"), 1)
+					.andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON)).andReturn();
+
+			String content = mvcResult.getResponse().getContentAsString();
+			CollectionType collectionType = mapper.getTypeFactory().constructCollectionType(List.class,
+					Person.class);
+			Object value = mapper.readValue(content, collectionType);
+
+			assertThat(value).isNotNull().asList().usingRecursiveComparison().isEqualTo(personList);
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testGetPersonByIdRunsSingleStatement() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Country uk = Country.builder().id(2L).name("United Kingdom").continent(Continent.EUROPE).capital("London")
+				.population(67596281).square(244376).build();
+		Person newPerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+				.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(uk)
+				.favoriteMeals("apple,pear,banana").build();
+		newPerson = personRepository.save(newPerson);
+		try {
+			MvcResult mvcResult = StatementCounter.perform(mvc, get("/api/person/{id}", newPerson.getId()), 1)
+					.andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON)).andReturn();
+			String content = mvcResult.getResponse().getContentAsString();
+			Person person = mapper.readValue(content, Person.class);
+
+			assertThat(person).isNotNull().usingRecursiveComparison().isEqualTo(newPerson);
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
+
 	@Test
 	void testGetPersonByIdFailNotFound() throws Exception {
 		final Long PERSON_ID = 1000L;
@@ -568,6 +678,271 @@ class PersonControllerTest {
 				.withComparedFields("name", "birthday", "sex", "eyeColor", "height").build()).isEqualTo(result);
 	}
 
+	@Test
+	void testGetPersonListByCursorWithoutTotalSuccess() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(1428627663).square(3287263).build();
+		final List<Person> personList = List.of(
+				Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+						.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("apple,pear,banana").build(),
+				Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(70))
+						.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("banana,apple,pear").build(),
+				Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+						.height(BigDecimal.valueOf(120)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("pear,apple,banana").build());
+		personRepository.deleteAll();
+		personRepository.saveAll(personList);
+
+		String requestBody = """
+				{
+				        "size":2,
+				        "total":"NONE"
+				}
+				""";
+		MvcResult mvcResult = mvc
+				.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+				.andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON)).andReturn();
+		PersonListDto firstPage = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+				PersonListDto.class);
+
+		assertThat(firstPage.totalPages()).isNull();
+		assertThat(firstPage.next()).isNotNull();
+		assertThat(firstPage.list()).extracting(EssentialPersonDto::name).containsExactly("John Smith",
+				"Jacky Blacksmith");
+
+		requestBody = """
+				{
+				        "size":2,
+				        "after":"%s",
+				        "total":"NONE"
+				}
+				""".formatted(firstPage.next());
+		mvcResult = mvc.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+				.andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON)).andReturn();
+		PersonListDto lastPage = mapper.readValue(mvcResult.getResponse().getContentAsString(), PersonListDto.class);
+
+		assertThat(lastPage.next()).isNull();
+		assertThat(lastPage.list()).extracting(EssentialPersonDto::name).containsExactly("Ruth Glanshow");
+	}
+
+	@Test
+	void testGetPersonListFilterByRangeListAndPrefixSuccess() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(1428627663).square(3287263).build();
+		final Country uk = Country.builder().id(2L).name("United Kingdom").continent(Continent.EUROPE).capital("London")
+				.population(1428627663).square(3287263).build();
+		final List<Person> personList = List.of(
+				Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+						.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("apple,pear,banana").build(),
+				Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(70))
+						.height(BigDecimal.valueOf(160)).countryOfOrigin(uk).citizenship(uk)
+						.favoriteMeals("banana,apple,pear").build(),
+				Person.builder().name("Jane Steep").birthday(LocalDate.of(1995, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.BLUE).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(60))
+						.height(BigDecimal.valueOf(170)).countryOfOrigin(usa).citizenship(uk)
+						.favoriteMeals("pear,apple,banana").build(),
+				Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(1985, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+						.height(BigDecimal.valueOf(165)).countryOfOrigin(uk).citizenship(uk)
+						.favoriteMeals("pear,apple,banana").build());
+		personRepository.deleteAll();
+		personRepository.saveAll(personList);
+
+		String requestBody = """
+				{
+				        "filter":{
+				        	"namePrefix":"Ja",
+				        	"birthdayFrom":"1980-01-01",
+				        	"birthdayTo":"1999-12-31",
+				        	"sexes":["FEMALE"],
+				        	"eyeColors":["RED","BLUE"],
+				        	"heightFrom":160,
+				        	"heightTo":170,
+				        	"citizenshipIds":[2]
+				        }
+				}
+				""";
+		MvcResult mvcResult = mvc
+				.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+				.andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON)).andReturn();
+		PersonListDto response = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+				PersonListDto.class);
+
+		assertThat(response.totalPages()).isEqualTo(1);
+		assertThat(response.list()).extracting(EssentialPersonDto::name).containsExactly("Jacky Blacksmith",
+				"Jane Steep");
+	}
+
+	@Test
+	void testGetPersonListFilterUsesPersonIndexes() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(1428627663).square(3287263).build();
+		final Country uk = Country.builder().id(2L).name("United Kingdom").continent(Continent.EUROPE).capital("London")
+				.population(1428627663).square(3287263).build();
+		final List<Person> personList = List.of(
+				Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+						.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("apple,pear,banana").build(),
+				Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(70))
+						.height(BigDecimal.valueOf(160)).countryOfOrigin(uk).citizenship(uk)
+						.favoriteMeals("banana,apple,pear").build());
+		personRepository.deleteAll();
+		personRepository.saveAll(personList);
+		entityManager.createNativeQuery("set local enable_seqscan = off").executeUpdate();
+
+		long personSeqScans = getScanCount("person");
+		long nameIndexScans = getIndexScanCount(List.of("name"));
+		mvc.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content("""
+				{
+				        "filter":{
+				        	"namePrefix":"Jo",
+				        	"birthdayFrom":"1985-01-01"
+				        }
+				}
+				""")).andExpect(status().isOk());
+		assertThat(getIndexScanCount(List.of("name"))).isGreaterThan(nameIndexScans);
+		assertThat(getScanCount("person")).isEqualTo(personSeqScans);
+
+		long sexCitizenshipIndexScans = getIndexScanCount(List.of("sex", "citizenship"));
+		mvc.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content("""
+				{
+				        "sex":"FEMALE",
+				        "filter":{
+				        	"citizenshipIds":[1,2],
+				        	"countryOfOriginIds":[2]
+				        }
+				}
+				""")).andExpect(status().isOk());
+		assertThat(getIndexScanCount(List.of("sex", "citizenship"))).isGreaterThan(sexCitizenshipIndexScans);
+		assertThat(getScanCount("person")).isEqualTo(personSeqScans);
+	}
+
+	/**
+	 * Method returns number of scans of relation in current transaction, which
+	 * counts index scans for index and sequential scans for table
+	 */
+	private long getScanCount(String relationName) {
+		return ((Number) entityManager
+				.createNativeQuery("select pg_stat_get_xact_numscans(cast(:relation as regclass))")
+				.setParameter("relation", relationName).getSingleResult()).longValue();
+	}
+
+	/**
+	 * Method returns number of scans in current transaction of all indexes of
+	 * person table led by one of given columns, planner may choose any of them
+	 */
+	private long getIndexScanCount(List<String> leadingColumns) {
+		return ((Number) entityManager.createNativeQuery("""
+				select coalesce(sum(pg_stat_get_xact_numscans(i.indexrelid)), 0)
+				from pg_index i join pg_attribute a on a.attrelid = i.indrelid and a.attnum = i.indkey[0]
+				where i.indrelid = cast('person' as regclass) and a.attname in (:columns)
+				""").setParameter("columns", leadingColumns).getSingleResult()).longValue();
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testGetPersonListWithCachedAndEstimatedTotalSuccess() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(1428627663).square(3287263).build();
+		final List<Person> personList = List.of(
+				Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+						.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("apple,pear,banana").build(),
+				Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(70))
+						.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("banana,apple,pear").build());
+		mvc.perform(delete("/api/person")).andExpect(status().isOk());
+		personRepository.saveAll(personList);
+		try {
+			String requestBody = """
+					{
+					        "size":1,
+					        "total":"CACHED"
+					}
+					""";
+			MvcResult mvcResult = mvc
+					.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+					.andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON)).andReturn();
+			PersonListDto response = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					PersonListDto.class);
+
+			assertThat(response.totalMode()).isEqualTo(TotalMode.CACHED);
+			assertThat(response.totalElements()).isEqualTo(2);
+			assertThat(response.totalPages()).isEqualTo(2);
+
+			mvcResult = StatementCounter.perform(mvc,
+					post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content(requestBody), 1)
+					.andExpect(status().isOk()).andReturn();
+			response = mapper.readValue(mvcResult.getResponse().getContentAsString(), PersonListDto.class);
+
+			assertThat(response.totalElements()).isEqualTo(2);
+
+			Person newPerson = Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1))
+					.sex(Sex.FEMALE).eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+					.height(BigDecimal.valueOf(120)).countryOfOrigin(usa).citizenship(usa)
+					.favoriteMeals("pear,apple,banana").build();
+			String personBody = mapper.writeValueAsString(newPerson);
+			mvc.perform(post("/api/person").contentType(MediaType.APPLICATION_JSON).content(personBody))
+					.andExpect(status().isCreated());
+			mvcResult = mvc
+					.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+					.andExpect(status().isOk()).andReturn();
+			response = mapper.readValue(mvcResult.getResponse().getContentAsString(), PersonListDto.class);
+
+			assertThat(response.totalElements()).isEqualTo(3);
+
+			mvcResult = mvc.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content("""
+					{
+					        "size":1,
+					        "total":"ESTIMATED"
+					}
+					""")).andExpect(status().isOk()).andReturn();
+			response = mapper.readValue(mvcResult.getResponse().getContentAsString(), PersonListDto.class);
+
+			assertThat(response.totalMode()).isEqualTo(TotalMode.ESTIMATED);
+			assertThat(response.totalElements()).isNotNull().isNotNegative();
+			assertThat(response.list()).hasSize(1);
+		} finally {
+			mvc.perform(delete("/api/person")).andExpect(status().isOk());
+		}
+	}
+
+	@Test
+	void testGetPersonListFailPageOffsetTooLarge() throws Exception {
+		String requestBody = """
+				{
+				        "page":2147483647,
+				        "size":10
+				}
+				""";
+		mvc.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void testGetPersonListFailPageSizeTooLarge() throws Exception {
+		String requestBody = """
+				{
+				        "page":0,
+				        "size":2147483647
+				}
+				""";
+		mvc.perform(post("/api/person/_list").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+				.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	void testGetPersonListAsFileSuccess() throws Exception {
 		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
@@ -625,9 +1000,10 @@ class PersonControllerTest {
 	}
 
 	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	void testUploadFileSuccess() throws Exception {
 		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
-				.capital("Washington").population(1428627663).square(3287263).build();
+				.capital("Washington").population(334914895).square(8080470).build();
 		final List<Person> personList = List.of(
 				Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
 						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
@@ -644,17 +1020,721 @@ class PersonControllerTest {
 		byte[] multipartFileContent = mapper.writeValueAsBytes(personList);
 
 		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, multipartFileContent);
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			UploadResponse response = finishedUploadJob.result();
+			assertThat(response.succeededEntries()).isEqualTo(personList.size());
+			assertThat(response.failedEntries()).isZero();
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrderElementsOf(personList));
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadFileSplitIntoChunksWithEscapedQuotesAndBracketsSuccess() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final List<Person> personList = createPersons(usa, 100);
+		byte[] multipartFileContent = mapper.writeValueAsBytes(personList);
+		assertThat(multipartFileContent.length).isGreaterThan(10 * 1024);
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, "persons.json",
+					MediaType.APPLICATION_JSON_VALUE, multipartFileContent);
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			assertThat(finishedUploadJob.result().succeededEntries()).isEqualTo(personList.size());
+			assertThat(finishedUploadJob.result().failedEntries()).isZero();
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrderElementsOf(personList));
+		} finally {
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
 
-		MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, multipartFileContent);
-		MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
-				.andExpectAll(status().isOk()).andReturn();
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadFileWithInvalidEntriesSavesValidEntries() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Person validPerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person overweightPerson = Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(500))
+				.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("banana,apple,pear").build();
+		final Person duplicatePerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(70))
+				.height(BigDecimal.valueOf(170)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		final Person anotherValidPerson = Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+				.height(BigDecimal.valueOf(120)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		byte[] multipartFileContent = mapper
+				.writeValueAsBytes(List.of(validPerson, overweightPerson, duplicatePerson, anotherValidPerson));
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, multipartFileContent);
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			UploadResponse response = finishedUploadJob.result();
+			assertThat(response.succeededEntries()).isEqualTo(2);
+			assertThat(response.failedEntries()).isEqualTo(2);
+			assertThat(response.failures()).extracting(UploadFailure::row).containsExactly(2L, 3L);
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrder(validPerson, anotherValidPerson));
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadFileValidatesEntriesOnParserThreads() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Person validPerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person overweightPerson = Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(500))
+				.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("banana,apple,pear").build();
+		final Person shortNamePerson = Person.builder().name("Jo").birthday(LocalDate.of(1970, 1, 1)).sex(Sex.MALE)
+				.eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(70))
+				.height(BigDecimal.valueOf(170)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		byte[] multipartFileContent = mapper.writeValueAsBytes(List.of(validPerson, overweightPerson, shortNamePerson));
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, multipartFileContent);
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			assertThat(finishedUploadJob.stages().get(Stage.PARSE).items()).isEqualTo(3);
+			assertThat(finishedUploadJob.stages().get(Stage.VALIDATE).items()).isEqualTo(3);
+			UploadResponse response = finishedUploadJob.result();
+			assertThat(response.succeededEntries()).isEqualTo(1);
+			assertThat(response.failedEntries()).isEqualTo(2);
+			assertThat(response.failures()).extracting(UploadFailure::row).containsExactly(2L, 3L);
+			assertThat(response.failures().get(0).reason()).contains("weight");
+			assertThat(response.failures().get(1).reason()).contains("name");
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id").containsExactly(validPerson));
+		} finally {
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadFileInCopyModeSavesValidEntries() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Person validPerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person overweightPerson = Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(500))
+				.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("banana,apple,pear").build();
+		final Person duplicatePerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(70))
+				.height(BigDecimal.valueOf(170)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		final Person anotherValidPerson = Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+				.height(BigDecimal.valueOf(120)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		byte[] multipartFileContent = mapper
+				.writeValueAsBytes(List.of(validPerson, overweightPerson, duplicatePerson, anotherValidPerson));
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, multipartFileContent);
+			MvcResult mvcResult = mvc
+					.perform(multipart("/api/person/upload").file(multipartFile).param("mode", WriteMode.COPY.name()))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			UploadResponse response = finishedUploadJob.result();
+			assertThat(response.succeededEntries()).isEqualTo(2);
+			assertThat(response.failedEntries()).isEqualTo(2);
+			assertThat(response.failures()).extracting(UploadFailure::row).containsExactly(2L, 3L);
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrder(validPerson, anotherValidPerson));
+		} finally {
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadNdjsonFileReportsMalformedLinesAndSavesValidLines() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Person validPerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person overweightPerson = Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(500))
+				.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("banana,apple,pear").build();
+		final Person anotherValidPerson = Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+				.height(BigDecimal.valueOf(120)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		String multipartFileContent = String.join("\n", mapper.writeValueAsString(validPerson),
+				"{\"name\":\"Broken Line\",", mapper.writeValueAsString(overweightPerson),
+				"{\"name\":\"Unknown Sex\",\"sex\":\"UNKNOWN\"}", mapper.writeValueAsString(anotherValidPerson));
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, "persons.ndjson",
+					MediaType.APPLICATION_NDJSON_VALUE, multipartFileContent.getBytes(StandardCharsets.UTF_8));
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			UploadResponse response = finishedUploadJob.result();
+			assertThat(response.succeededEntries()).isEqualTo(2);
+			assertThat(response.failedEntries()).isEqualTo(3);
+			assertThat(response.failures()).extracting(UploadFailure::row).containsExactly(2L, 3L, 4L);
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrder(validPerson, anotherValidPerson));
+		} finally {
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "persons.json.gz", "persons.ndjson.gz", "persons.zip" })
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadCompressedFileSuccess(String fileName) throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final List<Person> personList = createPersons(usa, 20);
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, fileName,
+					MediaType.APPLICATION_OCTET_STREAM_VALUE, createUploadContent(fileName, personList));
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			assertThat(finishedUploadJob.result().succeededEntries()).isEqualTo(personList.size());
+			assertThat(finishedUploadJob.result().failedEntries()).isZero();
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrderElementsOf(personList));
+		} finally {
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "application/json, persons.json", "application/x-ndjson, persons.ndjson",
+			"application/octet-stream, persons.json", "application/gzip, persons.json.gz",
+			"application/zip, persons.zip" })
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadRequestBodySuccess(String contentType, String fileName) throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final List<Person> personList = createPersons(usa, 20);
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MvcResult mvcResult = mvc
+					.perform(post("/api/person/upload").contentType(contentType)
+							.content(createUploadContent(fileName, personList)))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			assertThat(finishedUploadJob.result().succeededEntries()).isEqualTo(personList.size());
+			assertThat(finishedUploadJob.result().failedEntries()).isZero();
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrderElementsOf(personList));
+		} finally {
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadArchiveReportsFailuresBySourceAndRecord() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Person validPerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person overweightPerson = Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(500))
+				.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("banana,apple,pear").build();
+		final Person duplicatePerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(70))
+				.height(BigDecimal.valueOf(170)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		final Person anotherValidPerson = Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+				.height(BigDecimal.valueOf(120)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		try (ZipOutputStream output = new ZipOutputStream(archive)) {
+			output.putNextEntry(new ZipEntry("first.json"));
+			output.write(mapper.writeValueAsBytes(List.of(validPerson, overweightPerson)));
+			output.putNextEntry(new ZipEntry("second.json"));
+			output.write(mapper.writeValueAsBytes(List.of(anotherValidPerson, duplicatePerson)));
+		}
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, "persons.zip",
+					MediaType.APPLICATION_OCTET_STREAM_VALUE, archive.toByteArray());
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			UploadResponse response = finishedUploadJob.result();
+			assertThat(response.succeededEntries()).isEqualTo(2);
+			assertThat(response.failedEntries()).isEqualTo(2);
+			assertThat(response.failures()).extracting(UploadFailure::source, UploadFailure::row)
+					.containsExactly(tuple("first.json", 2L), tuple("second.json", 2L));
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrder(validPerson, anotherValidPerson));
+		} finally {
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testSaveAllUpdatesExistingPersonsOnConflict() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Person person = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+				.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person updatedPerson = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.GREEN).hairColor(Color.GRAY).weight(BigDecimal.valueOf(90))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person newPerson = Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+				.height(BigDecimal.valueOf(120)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+
+		personRepository.deleteAll();
+		try {
+			mvc.perform(post("/api/person/_bulk").contentType(MediaType.APPLICATION_JSON)
+					.content(mapper.writeValueAsString(List.of(person)))).andExpectAll(status().isOk());
+
+			MvcResult mvcResult = mvc.perform(post("/api/person/_bulk").param("onConflict", "UPDATE")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(mapper.writeValueAsString(List.of(updatedPerson, newPerson))))
+					.andExpectAll(status().isOk()).andReturn();
+
+			UploadResponse response = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadResponse.class);
+			assertThat(response.succeededEntries()).isEqualTo(2);
+			assertThat(response.failedEntries()).isZero();
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrder(updatedPerson, newPerson));
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "JPA,FAIL", "JPA,SKIP", "JPA,UPDATE", "COPY,FAIL", "COPY,SKIP", "COPY,UPDATE" })
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testSaveAllReportsPersonsWithDuplicateNameAndDifferentBirthday(WriteMode writeMode, OnConflict onConflict)
+			throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Person person = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+				.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person sameNamePerson = Person.builder().name("John Smith").birthday(LocalDate.of(1991, 2, 2))
+				.sex(Sex.MALE).eyeColor(Color.BLUE).hairColor(Color.GRAY).weight(BigDecimal.valueOf(90))
+				.height(BigDecimal.valueOf(180)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+		final Person newPerson = Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2000, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.RED).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(50))
+				.height(BigDecimal.valueOf(120)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+		final Person sameNameNewPerson = Person.builder().name("Ruth Glanshow").birthday(LocalDate.of(2001, 1, 1))
+				.sex(Sex.FEMALE).eyeColor(Color.BLUE).hairColor(Color.YELLOW).weight(BigDecimal.valueOf(55))
+				.height(BigDecimal.valueOf(125)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("pear,apple,banana").build();
+
+		personRepository.deleteAll();
+		try {
+			mvc.perform(post("/api/person/_bulk").contentType(MediaType.APPLICATION_JSON)
+					.content(mapper.writeValueAsString(List.of(person)))).andExpectAll(status().isOk());
+
+			MvcResult mvcResult = mvc
+					.perform(post("/api/person/_bulk").param("mode", writeMode.name())
+							.param("onConflict", onConflict.name()).contentType(MediaType.APPLICATION_JSON)
+							.content(mapper.writeValueAsString(List.of(sameNamePerson, newPerson, sameNameNewPerson))))
+					.andExpectAll(status().isOk()).andReturn();
+
+			UploadResponse response = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadResponse.class);
+			assertThat(response.succeededEntries()).isEqualTo(1);
+			assertThat(response.failedEntries()).isEqualTo(2);
+			assertThat(response.failures()).containsExactly(new UploadFailure(null, 1, "duplicate name"),
+					new UploadFailure(null, 3, "duplicate name"));
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrder(person, newPerson));
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testSaveAllMergesPersonWithIdentifier() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final Person person = Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+				.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build();
+
+		personRepository.deleteAll();
+		try {
+			mvc.perform(post("/api/person/_bulk").contentType(MediaType.APPLICATION_JSON)
+					.content(mapper.writeValueAsString(List.of(person)))).andExpectAll(status().isOk());
+			final Long id = personRepository.findAll().get(0).getId();
+			final Person updatedPerson = Person.builder().id(id).name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+					.sex(Sex.MALE).eyeColor(Color.GREEN).hairColor(Color.GRAY).weight(BigDecimal.valueOf(90))
+					.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+					.favoriteMeals("apple,pear,banana").build();
+
+			MvcResult mvcResult = mvc.perform(post("/api/person/_bulk").param("mode", WriteMode.JPA.name())
+					.param("onConflict", OnConflict.FAIL.name()).contentType(MediaType.APPLICATION_JSON)
+					.content(mapper.writeValueAsString(List.of(updatedPerson)))).andExpectAll(status().isOk())
+					.andReturn();
+
+			UploadResponse response = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadResponse.class);
+			assertThat(response.succeededEntries()).isEqualTo(1);
+			assertThat(response.failedEntries()).isZero();
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparator().containsExactly(updatedPerson));
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
 
-		UploadResponse response = mapper.readValue(mvcResult.getResponse().getContentAsString(), UploadResponse.class);
-		assertThat(response.succeededEntries()).isEqualTo(personList.size());
-		assertThat(response.failedEntries()).isZero();
+	@ParameterizedTest
+	@ValueSource(strings = { "JPA", "COPY" })
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testSaveAllAllocatesConsecutiveIdentifiersForInsertStatements(WriteMode writeMode) throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final List<Person> personList = List.of(
+				Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+						.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("apple,pear,banana").build(),
+				Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(70))
+						.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("banana,apple,pear").build());
+
+		personRepository.deleteAll();
+		try {
+			mvc.perform(post("/api/person/_bulk").param("mode", writeMode.name())
+					.param("onConflict", OnConflict.SKIP.name()).contentType(MediaType.APPLICATION_JSON)
+					.content(mapper.writeValueAsString(personList))).andExpectAll(status().isOk());
+
+			List<Long> ids = personRepository.findAll().stream().map(Person::getId).sorted().toList();
+			assertThat(ids).hasSize(2);
+			assertThat(ids.get(1) - ids.get(0)).isLessThan(personList.size());
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadSessionWithChunksReceivedOutOfOrderSuccess() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final List<Person> personList = List.of(
+				Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1)).sex(Sex.MALE)
+						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+						.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("apple,pear,banana").build(),
+				Person.builder().name("Jacky Blacksmith").birthday(LocalDate.of(1980, 1, 1)).sex(Sex.FEMALE)
+						.eyeColor(Color.BLUE).hairColor(Color.BLACK).weight(BigDecimal.valueOf(70))
+						.height(BigDecimal.valueOf(160)).countryOfOrigin(usa).citizenship(usa)
+						.favoriteMeals("banana,apple,pear").build());
+		byte[] content = mapper.writeValueAsBytes(personList);
+		int half = content.length / 2;
+
+		personRepository.deleteAll();
+		try {
+			MvcResult mvcResult = mvc
+					.perform(post("/api/person/upload/_session").param("fileName", "persons.json")
+							.param("size", String.valueOf(content.length)))
+					.andExpectAll(status().isCreated()).andReturn();
+			UploadSessionDto uploadSession = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadSessionDto.class);
+			String sessionUrl = "/api/person/upload/_session/" + uploadSession.id();
+
+			mvc.perform(put(sessionUrl + "/2").param("offset", String.valueOf(half))
+					.contentType(MediaType.APPLICATION_OCTET_STREAM)
+					.content(Arrays.copyOfRange(content, half, content.length))).andExpect(status().isOk());
+			mvc.perform(put(sessionUrl + "/1").param("offset", "0").contentType(MediaType.APPLICATION_OCTET_STREAM)
+					.content(Arrays.copyOfRange(content, 0, half))).andExpect(status().isOk());
+			mvcResult = mvc.perform(get(sessionUrl)).andExpect(status().isOk()).andReturn();
+			UploadSessionDto receivedSession = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadSessionDto.class);
+			assertThat(receivedSession.receivedBytes()).isEqualTo(content.length);
+			assertThat(receivedSession.chunks()).hasSize(2);
+
+			mvc.perform(post(sessionUrl + "/_commit")).andExpect(status().isAccepted());
+
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadSession.jobId());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			assertThat(finishedUploadJob.result().succeededEntries()).isEqualTo(personList.size());
+
+			transactionTemplate.executeWithoutResult(status -> assertThat(personRepository.findAll()).asList()
+					.usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+					.containsExactlyInAnyOrderElementsOf(personList));
+		} finally {
+			personRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadFileWhileUploadSessionsAreOpenSuccess() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final List<Person> personList = createPersons(usa, 20);
+		final int sessionCount = ingestionProperties.getJobs().getMaxConcurrent() + 1;
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		List<UploadSessionDto> uploadSessions = new ArrayList<>();
+		try {
+			for (int k = 0; k < sessionCount; k++) {
+				MvcResult mvcResult = mvc.perform(post("/api/person/upload/_session").param("fileName", "persons.json"))
+						.andExpectAll(status().isCreated()).andReturn();
+				uploadSessions.add(mapper.readValue(mvcResult.getResponse().getContentAsString(),
+						UploadSessionDto.class));
+			}
+
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, "persons.json",
+					MediaType.APPLICATION_JSON_VALUE, createUploadContent("persons.json", personList));
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			assertThat(finishedUploadJob.result().succeededEntries()).isEqualTo(personList.size());
+
+			mvcResult = mvc.perform(get("/api/person/upload/_scheduler")).andExpect(status().isOk()).andReturn();
+			ParserSchedulerStatus schedulerStatus = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					ParserSchedulerStatus.class);
+			assertThat(schedulerStatus.activeUploads()).isZero();
+		} finally {
+			for (UploadSessionDto uploadSession : uploadSessions) {
+				mvc.perform(delete("/api/person/upload/_session/" + uploadSession.id()))
+						.andExpect(status().isOk());
+				assertThat(waitForUploadJob(uploadSession.jobId()).state()).isEqualTo(UploadJobState.FAILED);
+			}
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testUploadSameFileTwiceReturnsRecordedResponse() throws Exception {
+		final Country usa = Country.builder().id(1L).name("USA").continent(Continent.NORTH_AMERICA)
+				.capital("Washington").population(334914895).square(8080470).build();
+		final List<Person> personList = List.of(Person.builder().name("John Smith").birthday(LocalDate.of(1990, 1, 1))
+				.sex(Sex.MALE).eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(80))
+				.height(BigDecimal.valueOf(190)).countryOfOrigin(usa).citizenship(usa)
+				.favoriteMeals("apple,pear,banana").build());
+		byte[] multipartFileContent = mapper.writeValueAsBytes(personList);
+
+		personRepository.deleteAll();
+		personImportRepository.deleteAll();
+		try {
+			MockMultipartFile multipartFile = new MockMultipartFile(MULTIPART_FILE_NAME, multipartFileContent);
+			MvcResult mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			UploadJobDto finishedUploadJob = waitForUploadJob(uploadJob.id());
+			assertThat(finishedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			assertThat(waitForUploadJob(uploadJob.id()).result()).isEqualTo(finishedUploadJob.result());
+
+			mvcResult = mvc.perform(multipart("/api/person/upload").file(multipartFile))
+					.andExpectAll(status().isAccepted()).andReturn();
+			UploadJobDto repeatedUploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			assertThat(repeatedUploadJob.state()).isEqualTo(UploadJobState.COMPLETED);
+			assertThat(repeatedUploadJob.result()).isEqualTo(finishedUploadJob.result());
+			assertThat(personRepository.count()).isEqualTo(personList.size());
+		} finally {
+			personRepository.deleteAll();
+			personImportRepository.deleteAll();
+		}
+	}
+
+	/**
+	 * Method creates persons with names containing quotes, brackets, braces and
+	 * backslashes, so boundaries of records cannot be found without tracking
+	 * strings and escapes
+	 */
+	private List<Person> createPersons(Country country, int count) {
+		return IntStream.rangeClosed(1, count)
+				.mapToObj(k -> Person.builder().name("Person \"%d\" ]}, [{ \\\"end\\\"".formatted(k))
+						.birthday(LocalDate.of(1950, 1, 1).plusDays(k)).sex(k % 2 == 0 ? Sex.MALE : Sex.FEMALE)
+						.eyeColor(Color.GREEN).hairColor(Color.BLACK).weight(BigDecimal.valueOf(50 + k % 100))
+						.height(BigDecimal.valueOf(150 + k % 70)).countryOfOrigin(country).citizenship(country)
+						.favoriteMeals("apple,pear,banana").build())
+				.toList();
+	}
+
+	/**
+	 * Method returns content of upload file of given name, its extensions define
+	 * format and compression of content, archive keeps persons in single JSON
+	 * entry
+	 */
+	private byte[] createUploadContent(String fileName, List<Person> personList) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		if (fileName.endsWith(".zip")) {
+			try (ZipOutputStream output = new ZipOutputStream(content)) {
+				output.putNextEntry(new ZipEntry("persons.json"));
+				output.write(createUploadContent("persons.json", personList));
+			}
+		} else if (fileName.endsWith(".gz")) {
+			try (GZIPOutputStream output = new GZIPOutputStream(content)) {
+				output.write(createUploadContent(fileName.substring(0, fileName.length() - ".gz".length()),
+						personList));
+			}
+		} else if (fileName.endsWith(".ndjson")) {
+			for (Person person : personList) {
+				content.write(mapper.writeValueAsBytes(person));
+				content.write('\n');
+			}
+		} else {
+			content.write(mapper.writeValueAsBytes(personList));
+		}
+		return content.toByteArray();
+	}
 
-		assertThat(personRepository.findAll()).asList().usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
-				.containsExactlyInAnyOrderElementsOf(personList);
+	private UploadJobDto waitForUploadJob(String jobId) throws Exception {
+		long deadline = System.currentTimeMillis() + UPLOAD_JOB_TIMEOUT_MILLIS;
+		while (true) {
+			MvcResult mvcResult = mvc.perform(get("/api/person/upload/{jobId}", jobId))
+					.andExpectAll(status().isOk()).andReturn();
+			UploadJobDto uploadJob = mapper.readValue(mvcResult.getResponse().getContentAsString(),
+					UploadJobDto.class);
+			if (uploadJob.state() == UploadJobState.COMPLETED || uploadJob.state() == UploadJobState.FAILED) {
+				return uploadJob;
+			}
+			assertThat(System.currentTimeMillis()).isLessThan(deadline);
+			Thread.sleep(UPLOAD_JOB_POLL_INTERVAL_MILLIS);
+		}
 	}
 
 }
@@ -0,0 +1,51 @@
+package com.streamlined.restapp.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Class counts SQL statements prepared by Hibernate, so test fails if request
+ * runs more statements than expected. Asynchronous part of request is awaited
+ * before statements are counted. Statements of all threads are counted, so
+ * nothing else should access database while request is performed.
+ */
+
+public class StatementCounter implements StatementInspector {
+
+	private static final AtomicInteger STATEMENT_COUNT = new AtomicInteger();
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENT_COUNT.incrementAndGet();
+		return sql;
+	}
+
+	/**
+	 * Method performs request and checks number of statements it ran
+	 *
+	 * @param mvc               MockMvc performing request
+	 * @param request           request to be performed
+	 * @param maxStatementCount maximum expected number of statements
+	 * @return result of request
+	 */
+	static ResultActions perform(MockMvc mvc, RequestBuilder request, int maxStatementCount) throws Exception {
+		STATEMENT_COUNT.set(0);
+		ResultActions resultActions = mvc.perform(request);
+		MvcResult mvcResult = resultActions.andReturn();
+		if (mvcResult.getRequest().isAsyncStarted()) {
+			resultActions = mvc.perform(asyncDispatch(mvcResult));
+		}
+		assertThat(STATEMENT_COUNT.get()).as("number of SQL statements run by request")
+				.isLessThanOrEqualTo(maxStatementCount);
+		return resultActions;
+	}
+
+}